@@ -0,0 +1,19 @@
+package benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Shared setup for the benchmarks
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() { }
+
+    /**
+     * Discard console output so Logger cost is measured without terminal I/O
+     */
+    static void silenceStdout() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+}
@@ -0,0 +1,65 @@
+package benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import utils.ConfigManager;
+
+/**
+ * Cost of configuration lookups on the test hot path, with and without a per-test snapshot bound
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ConfigManagerBenchmark {
+
+    @State(Scope.Thread)
+    public static class BoundSnapshot {
+        @Setup(Level.Trial)
+        public void bind() {
+            ConfigManager.bind(ConfigManager.baseSnapshot().withOverrides(Map.of("browser", "firefox")));
+        }
+
+        @TearDown(Level.Trial)
+        public void unbind() {
+            ConfigManager.unbind();
+        }
+    }
+
+    @Benchmark
+    public String get() {
+        return ConfigManager.get("browser", "chrome");
+    }
+
+    @Benchmark
+    public int getInt() {
+        return ConfigManager.getInt("driver.pool.maxUses", 25);
+    }
+
+    @Benchmark
+    public String getBound(BoundSnapshot snapshot) {
+        return ConfigManager.get("browser", "chrome");
+    }
+
+    @Benchmark
+    public long getLongBound(BoundSnapshot snapshot) {
+        return ConfigManager.getLong("wait.polling.maxMs", 500L);
+    }
+}
@@ -0,0 +1,88 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+
+import utils.DriverManager;
+import utils.ElementUtil;
+import utils.TimeoutConfig;
+
+/**
+ * Framework overhead of ElementUtil waits and clicks against an in-process stub driver
+ * Every condition is satisfied on the first poll, so the numbers are the framework's own cost
+ * (wait engine, metrics, logging) rather than browser latency
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Dwait.mode=polling", "-Dlogger.level=error"})
+@Threads(4)
+@State(Scope.Thread)
+public class ElementUtilBenchmark {
+
+    private static final By BUTTON = By.xpath("//button[@id='accept']");
+
+    private final ElementUtil elementUtil = new ElementUtil();
+    private WebDriver driver;
+    private WebDriver interceptingDriver;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkSupport.silenceStdout();
+        driver = new StubWebDriver(false);
+        interceptingDriver = new StubWebDriver(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DriverManager.quitDriver();
+    }
+
+    @Benchmark
+    public void waitForElementVisible(Blackhole blackhole) {
+        DriverManager.setDriver(driver);
+        blackhole.consume(elementUtil.waitForElementVisible(BUTTON, TimeoutConfig.ELEMENT_VISIBILITY_TIMEOUT));
+    }
+
+    @Benchmark
+    public void waitForElementClickable(Blackhole blackhole) {
+        DriverManager.setDriver(driver);
+        blackhole.consume(elementUtil.waitForElementClickable(BUTTON, TimeoutConfig.ELEMENT_CLICKABLE_TIMEOUT));
+    }
+
+    @Benchmark
+    public void click() {
+        DriverManager.setDriver(driver);
+        elementUtil.click(BUTTON);
+    }
+
+    /** Native click is intercepted, so the JavaScript fallback path runs */
+    @Benchmark
+    public void clickWithJsFallback() {
+        DriverManager.setDriver(interceptingDriver);
+        elementUtil.click(BUTTON);
+    }
+
+    @Benchmark
+    public String getText() {
+        DriverManager.setDriver(driver);
+        return elementUtil.getText(BUTTON);
+    }
+}
@@ -0,0 +1,54 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import utils.ExtentTestManager;
+
+/**
+ * Report logging throughput with 4 tests logging concurrently, using the on-disk journal
+ * ExtentTestManagerInMemoryBenchmark runs the same methods against the in-memory report
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Dreport.journal.enabled=true", "-Dlogger.level=error"})
+@Threads(4)
+@State(Scope.Thread)
+public class ExtentTestManagerBenchmark {
+
+    @Setup(Level.Trial)
+    public void createTest() {
+        BenchmarkSupport.silenceStdout();
+        ExtentTestManager.createTest("benchmark-" + Thread.currentThread().getName(), "Logging throughput", "Benchmark");
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanup() {
+        ExtentTestManager.cleanup();
+    }
+
+    @Benchmark
+    public void logInfo() {
+        ExtentTestManager.logInfo("Navigated to Fund Explorer page");
+    }
+
+    @Benchmark
+    public void logPass() {
+        ExtentTestManager.logPass("Investment type filter working correctly");
+    }
+}
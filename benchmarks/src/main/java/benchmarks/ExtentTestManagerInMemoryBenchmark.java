@@ -0,0 +1,10 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Fork;
+
+/**
+ * ExtentTestManagerBenchmark against the in-memory ExtentReports model
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Dreport.journal.enabled=false", "-Dlogger.level=error"})
+public class ExtentTestManagerInMemoryBenchmark extends ExtentTestManagerBenchmark {
+}
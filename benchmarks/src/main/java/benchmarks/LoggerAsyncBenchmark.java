@@ -0,0 +1,10 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Fork;
+
+/**
+ * LoggerBenchmark with the ring-buffer handoff enabled
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Dlogger.async=true", "-Dlogger.level=info", "-Dlogger.overflow=block"})
+public class LoggerAsyncBenchmark extends LoggerBenchmark {
+}
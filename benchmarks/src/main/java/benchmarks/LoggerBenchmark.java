@@ -0,0 +1,48 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import utils.Logger;
+
+/**
+ * Logger cost per call with 8 threads logging at once (synchronous mode)
+ * LoggerAsyncBenchmark runs the same methods with logger.async=true
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Dlogger.async=false", "-Dlogger.level=info"})
+@Threads(8)
+@State(Scope.Benchmark)
+public class LoggerBenchmark {
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkSupport.silenceStdout();
+    }
+
+    @Benchmark
+    public void info() {
+        Logger.info("Clicked element By.xpath: //button[@id='accept']");
+    }
+
+    /** Below the configured level - measures the cost of the level check alone */
+    @Benchmark
+    public void debugFiltered() {
+        Logger.debug("Polling By.xpath: //div[@class='spinner']");
+    }
+}
@@ -0,0 +1,220 @@
+package benchmarks;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.ElementClickInterceptedException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+/**
+ * In-process WebDriver that answers every command immediately
+ * Lets the benchmarks measure framework overhead without a browser: every element is present,
+ * displayed and enabled, and scripts return true. With interceptClicks, native clicks fail so
+ * ElementUtil takes its JavaScript fallback
+ */
+public class StubWebDriver implements WebDriver, JavascriptExecutor {
+
+    private final WebElement element;
+    private String currentUrl = "about:blank";
+
+    public StubWebDriver(boolean interceptClicks) {
+        this.element = new StubWebElement(interceptClicks);
+    }
+
+    @Override
+    public void get(String url) {
+        currentUrl = url;
+    }
+
+    @Override
+    public String getCurrentUrl() {
+        return currentUrl;
+    }
+
+    @Override
+    public String getTitle() {
+        return "Stub";
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        return List.of(element);
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        return element;
+    }
+
+    @Override
+    public String getPageSource() {
+        return "<html></html>";
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void quit() {
+    }
+
+    @Override
+    public Set<String> getWindowHandles() {
+        return Set.of("stub");
+    }
+
+    @Override
+    public String getWindowHandle() {
+        return "stub";
+    }
+
+    @Override
+    public TargetLocator switchTo() {
+        throw new UnsupportedOperationException("switchTo is not stubbed");
+    }
+
+    @Override
+    public Navigation navigate() {
+        return new Navigation() {
+            @Override
+            public void back() {
+            }
+
+            @Override
+            public void forward() {
+            }
+
+            @Override
+            public void to(String url) {
+                get(url);
+            }
+
+            @Override
+            public void to(URL url) {
+                get(url.toString());
+            }
+
+            @Override
+            public void refresh() {
+            }
+        };
+    }
+
+    @Override
+    public Options manage() {
+        throw new UnsupportedOperationException("manage is not stubbed");
+    }
+
+    @Override
+    public Object executeScript(String script, Object... args) {
+        return Boolean.TRUE;
+    }
+
+    @Override
+    public Object executeAsyncScript(String script, Object... args) {
+        return Boolean.TRUE;
+    }
+
+    private static final class StubWebElement implements WebElement {
+
+        private final boolean interceptClicks;
+
+        StubWebElement(boolean interceptClicks) {
+            this.interceptClicks = interceptClicks;
+        }
+
+        @Override
+        public void click() {
+            if (interceptClicks) {
+                throw new ElementClickInterceptedException("Stub element is covered");
+            }
+        }
+
+        @Override
+        public void submit() {
+        }
+
+        @Override
+        public void sendKeys(CharSequence... keysToSend) {
+        }
+
+        @Override
+        public void clear() {
+        }
+
+        @Override
+        public String getTagName() {
+            return "div";
+        }
+
+        @Override
+        public String getAttribute(String name) {
+            return "";
+        }
+
+        @Override
+        public boolean isSelected() {
+            return false;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public String getText() {
+            return "stub";
+        }
+
+        @Override
+        public List<WebElement> findElements(By by) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public WebElement findElement(By by) {
+            return this;
+        }
+
+        @Override
+        public boolean isDisplayed() {
+            return true;
+        }
+
+        @Override
+        public Point getLocation() {
+            return new Point(0, 0);
+        }
+
+        @Override
+        public Dimension getSize() {
+            return new Dimension(100, 20);
+        }
+
+        @Override
+        public Rectangle getRect() {
+            return new Rectangle(getLocation(), getSize());
+        }
+
+        @Override
+        public String getCssValue(String propertyName) {
+            return "";
+        }
+
+        @Override
+        public <X> X getScreenshotAs(OutputType<X> target) {
+            throw new UnsupportedOperationException("Screenshots are not stubbed");
+        }
+    }
+}
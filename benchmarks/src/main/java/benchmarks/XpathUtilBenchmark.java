@@ -0,0 +1,49 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import utils.LocatorTemplate;
+import utils.XpathUtil;
+
+/**
+ * Cost of building parameterized locators
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class XpathUtilBenchmark {
+
+    private static final String XPATH = "//div[@id='{section}']//li[normalize-space()='{value}']";
+    private static final LocatorTemplate TEMPLATE = LocatorTemplate.xpath(XPATH);
+
+    private final String section = "investment-type";
+    private final String value = "ETFs";
+
+    @Benchmark
+    public String replaceXpath() {
+        return XpathUtil.replaceXpath(XPATH, section, value);
+    }
+
+    @Benchmark
+    public String templateBind() {
+        return TEMPLATE.bind(section, value);
+    }
+
+    @Benchmark
+    public Object templateToBy() {
+        return TEMPLATE.toBy(section, value);
+    }
+}
@@ -1,10 +1,25 @@
 package pages;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 
+import utils.BrowserStateCache;
+import utils.CookieConsentHandler;
 import utils.DriverManager;
+import utils.DriverPool;
+import utils.ElementReadResult;
 import utils.ElementUtil;
+import utils.FixtureServer;
+import utils.Logger;
+import utils.NetworkShaper;
+import utils.OperationMetrics;
+import utils.ProfileTemplate;
+import utils.ReadinessCondition;
 import utils.TimeoutConfig;
 
 /**
@@ -43,12 +58,34 @@ public abstract class BasePage {
     }
     
     /**
-     * Check if element is present on page
+     * Check if element becomes visible within the short timeout
+     * Waits the full timeout when the element never shows - use the checks below for negative assertions
      */
     protected boolean isElementPresent(By locator) {
         return elementUtil.isElementPresent(locator, TimeoutConfig.SHORT_TIMEOUT);
     }
     
+    /**
+     * Check if element is displayed right now, without waiting
+     */
+    protected boolean isElementDisplayedNow(By locator) {
+        return elementUtil.isDisplayedNow(locator);
+    }
+    
+    /**
+     * Check that element does not show up for the given duration, failing as soon as it does
+     */
+    protected boolean isElementAbsentFor(By locator, Duration duration) {
+        return elementUtil.staysAbsentFor(locator, duration);
+    }
+    
+    /**
+     * Read text, visibility and attributes of many elements in a single round trip
+     */
+    protected Map<String, ElementReadResult> readElements(Map<String, By> locators, String... attributeNames) {
+        return elementUtil.readElements(locators, attributeNames);
+    }
+    
     /**
      * Get page title
      */
@@ -64,17 +101,85 @@ public abstract class BasePage {
     }
     
     /**
-     * Navigate to URL
+     * Absolute URL for an application path: the local fixture server when fixture.enabled,
+     * otherwise app.baseUrl
+     */
+    protected String appUrl(String path) {
+        return FixtureServer.appUrl(path);
+    }
+    
+    /**
+     * Conditions that mean this page is ready for interaction after navigation
+     * Override with the page's key element, networkIdle() or an application flag; the default
+     * waits for the load event like a full document.readyState check
+     */
+    protected List<ReadinessCondition> readinessConditions() {
+        return List.of(ReadinessCondition.documentComplete());
+    }
+    
+    /**
+     * Navigate to URL and wait for the page's readiness conditions
      */
     protected void navigateTo(String url) {
-        elementUtil.navigate(url);
-        waitForPageLoad();
+        navigateTo(url, readinessConditions());
+    }
+    
+    /**
+     * Navigate to URL and wait only for the given readiness conditions
+     */
+    protected void navigateTo(String url, ReadinessCondition... conditions) {
+        navigateTo(url, Arrays.asList(conditions));
+    }
+    
+    private void navigateTo(String url, List<ReadinessCondition> conditions) {
+        long start = OperationMetrics.start();
+        try {
+            BrowserStateCache.beforeNavigate(driver, url);
+            DriverPool.recordNavigation(driver, url);
+            elementUtil.navigate(url);
+            elementUtil.waitForReadiness(conditions);
+            NetworkShaper.reportPage(driver, url);
+            ProfileTemplate.recordPageLoad(driver, url);
+        } finally {
+            OperationMetrics.record("navigateTo", start);
+        }
     }
     
     /**
      * Handle cookie consent if present
+     * When the post-consent state was restored into this session only a quick check that no banner is
+     * shown is made; after a click the state is captured so later sessions start past the banner
      */
     protected void handleCookieConsent() {
-        elementUtil.handleCookieConsent();
+        if (BrowserStateCache.isRestored(driver, CookieConsentHandler.JOURNEY) && !isConsentBannerShown()) {
+            return;
+        }
+        if (elementUtil.handleCookieConsent()) {
+            BrowserStateCache.capture(driver, CookieConsentHandler.JOURNEY);
+        }
+    }
+    
+    private boolean isConsentBannerShown() {
+        try {
+            return CookieConsentHandler.isBannerShown(driver);
+        } catch (RuntimeException e) {
+            Logger.debug("Cookie banner check failed, handling consent: " + e.getMessage());
+            return true;
+        }
+    }
+    
+    /**
+     * Cache the cookies and storage of the current origin after a setup journey (login, preferences)
+     * so later sessions receive them before their first navigation
+     */
+    protected void captureBrowserState(String journey) {
+        BrowserStateCache.capture(driver, journey);
+    }
+    
+    /**
+     * True if the journey's cached state was injected into this session, so the journey can be skipped
+     */
+    protected boolean isBrowserStateRestored(String journey) {
+        return BrowserStateCache.isRestored(driver, journey);
     }
 }
\ No newline at end of file
@@ -1,7 +1,15 @@
 package pages;
 
+import java.util.List;
+import java.util.Locale;
+
 import org.openqa.selenium.By;
 
+import utils.ConfigManager;
+import utils.CookieConsentHandler;
+import utils.LocatorTemplate;
+import utils.ReadinessCondition;
+
 /**
  * Page Object for VanEck Fund Explorer ETF page
  * Follows Page Object Model best practices
@@ -13,16 +21,29 @@ public class PageFundExplorerETF extends BasePage {
 	private final By invTypeDropdownValues = By.xpath("//div[@id='intestmentType']/div//button");
 	private final By header = By.xpath("//h1[normalize-space(text()='Explore Our ETFs and Mutual Funds')]");
 	
-	// Page URLs
-	private static final String FUND_EXPLORER_URL = "https://www.vaneck.com/us/en/etf-mutual-fund-finder/etfs/";
-	private static final String HOME_URL = "https://www.vaneck.com/us/en/?country=us&audience=fa&disclaimer=true";
+	// Parameterized locators; option text is matched case-insensitively, like selectInvestmentType
+	private static final LocatorTemplate INV_TYPE_OPTION = LocatorTemplate.xpath("//div[@id='intestmentType']/div//button"
+			+ "[translate(normalize-space(), 'ABCDEFGHIJKLMNOPQRSTUVWXYZ', 'abcdefghijklmnopqrstuvwxyz')='{investmentType}']");
+	
+	// Page paths, resolved against app.baseUrl (or the fixture server)
+	private static final String FUND_EXPLORER_PATH = "/us/en/etf-mutual-fund-finder/etfs/";
+	private static final String HOME_PATH = "/us/en/?country=us&audience=fa&disclaimer=true";
+	
+	static {
+		// VanEck uses the Usercentrics consent manager - try its buttons before the generic selectors
+		CookieConsentHandler.registerSelectors("www.vaneck.com", List.of(
+				"//div[@id='usercentrics-cmp-ui']//button[contains(text(), 'Accept')]",
+				"//*[@id='usercentrics-cmp-ui']//button[1]"));
+	}
 	
 	/**
 	 * Navigate to Fund Explorer page
 	 * @return this page object for method chaining
 	 */
 	public PageFundExplorerETF navigateToFundExplorer() {
-		navigateTo(FUND_EXPLORER_URL);
+		// The finder is usable once the dropdown is rendered and its fund data requests have settled
+		navigateTo(appUrl(ConfigManager.get("app.fundExplorerPath", FUND_EXPLORER_PATH)),
+				ReadinessCondition.elementVisible(invTypeDropdown), ReadinessCondition.networkIdle(500));
 		handleCookieConsent();
 		return this;
 	}
@@ -32,7 +53,7 @@ public class PageFundExplorerETF extends BasePage {
 	 * @return this page object for method chaining
 	 */
 	public PageFundExplorerETF navigateToHome() {
-		navigateTo(HOME_URL);
+		navigateTo(appUrl(ConfigManager.get("app.homePath", HOME_PATH)), ReadinessCondition.documentInteractive());
 		handleCookieConsent();
 		return this;
 	}
@@ -48,6 +69,15 @@ public class PageFundExplorerETF extends BasePage {
 		return this;
 	}
 	
+	/**
+	 * Check if an investment type is offered in the (opened) dropdown
+	 * @param investmentType the investment type option text
+	 * @return true if the option is visible
+	 */
+	public boolean isInvestmentTypeOptionVisible(String investmentType) {
+		return isElementPresent(INV_TYPE_OPTION.toBy(investmentType.toLowerCase(Locale.ROOT)));
+	}
+	
 	/**
 	 * Get selected value from investment type dropdown
 	 * @return the selected dropdown value
@@ -0,0 +1,114 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Reads text, visibility and attributes of many elements in one script execution
+ * Locators the page cannot evaluate (e.g. link text) are read individually through WebDriver
+ */
+public final class BatchElementReader {
+
+    private static final String READ_SCRIPT = """
+            var selectors = arguments[0], attributes = arguments[1];
+            function find(strategy, value) {
+              try {
+                if (strategy === 'xpath') {
+                  return document.evaluate(value, document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;
+                }
+                return document.querySelector(value);
+              } catch (e) {
+                return null;
+              }
+            }
+            function visible(el) {
+              if (el.checkVisibility) { return el.checkVisibility({ checkOpacity: true, checkVisibilityCSS: true }); }
+              var style = getComputedStyle(el);
+              return style.display !== 'none' && style.visibility !== 'hidden' && el.getClientRects().length > 0;
+            }
+            function attribute(el, name) {
+              var property = el[name];
+              if (property !== undefined && property !== null && typeof property !== 'object' && typeof property !== 'function') {
+                return String(property);
+              }
+              return el.getAttribute(name);
+            }
+            return selectors.map(function (selector) {
+              var el = find(selector[0], selector[1]);
+              if (!el) { return null; }
+              var shown = visible(el);
+              var values = {};
+              attributes.forEach(function (name) { values[name] = attribute(el, name); });
+              return { displayed: shown, text: shown ? (el.innerText || '').trim() : '', attributes: values };
+            });
+            """;
+
+    private BatchElementReader() { }
+
+    /**
+     * Read every named locator, returning results in the same order as the input map
+     */
+    public static Map<String, ElementReadResult> read(WebDriver driver, Map<String, By> locators, List<String> attributes) {
+        List<String> scriptNames = new ArrayList<>();
+        List<List<String>> selectors = new ArrayList<>();
+        Map<String, ElementReadResult> results = new LinkedHashMap<>();
+
+        for (Map.Entry<String, By> entry : locators.entrySet()) {
+            String[] selector = BrowserLocator.toSelector(entry.getValue());
+            if (selector == null) {
+                results.put(entry.getKey(), readDirectly(driver, entry.getValue(), attributes));
+            } else {
+                results.put(entry.getKey(), null);
+                scriptNames.add(entry.getKey());
+                selectors.add(List.of(selector[0], selector[1]));
+            }
+        }
+
+        if (!selectors.isEmpty()) {
+            Object raw = ((JavascriptExecutor) driver).executeScript(READ_SCRIPT, selectors, attributes);
+            List<?> values = raw instanceof List ? (List<?>) raw : List.of();
+            for (int i = 0; i < scriptNames.size(); i++) {
+                Object value = i < values.size() ? values.get(i) : null;
+                results.put(scriptNames.get(i), toResult(value));
+            }
+        }
+        return results;
+    }
+
+    private static ElementReadResult toResult(Object value) {
+        if (!(value instanceof Map)) {
+            return ElementReadResult.missing();
+        }
+        Map<?, ?> map = (Map<?, ?>) value;
+        Map<String, String> attributeValues = new HashMap<>();
+        Object rawAttributes = map.get("attributes");
+        if (rawAttributes instanceof Map) {
+            ((Map<?, ?>) rawAttributes).forEach((name, attributeValue) ->
+                    attributeValues.put(String.valueOf(name), attributeValue == null ? null : String.valueOf(attributeValue)));
+        }
+        return new ElementReadResult(true, Boolean.TRUE.equals(map.get("displayed")),
+                String.valueOf(map.get("text")), attributeValues);
+    }
+
+    private static ElementReadResult readDirectly(WebDriver driver, By locator, List<String> attributes) {
+        List<WebElement> elements = driver.findElements(locator);
+        if (elements.isEmpty()) {
+            return ElementReadResult.missing();
+        }
+        WebElement element = elements.get(0);
+        boolean displayed = element.isDisplayed();
+        Map<String, String> attributeValues = new HashMap<>();
+        for (String name : attributes) {
+            attributeValues.put(name, element.getAttribute(name));
+        }
+        return new ElementReadResult(true, displayed, displayed ? element.getText() : "", attributeValues);
+    }
+}
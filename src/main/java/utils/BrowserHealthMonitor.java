@@ -0,0 +1,229 @@
+package utils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+
+/**
+ * Samples a reused session's browser between tests (health.enabled): JS heap and DOM nodes from CDP
+ * Performance.getMetrics (page script on other browsers) and the browser's resident memory.
+ * A session over any health.max* limit, or one that does not answer the probe within
+ * health.probeTimeoutMs, is recycled instead of being handed to the next test. Each sample is logged to
+ * the current test's report entry; run totals go to the report's system info
+ */
+public final class BrowserHealthMonitor {
+
+    private static final double MB = 1024.0 * 1024.0;
+
+    /** Page-side probe: DOM size and, on Chromium, the JS heap (-1 where unavailable) */
+    private static final String PROBE_SCRIPT =
+            "return [document.getElementsByTagName('*').length,"
+            + " (window.performance && performance.memory) ? performance.memory.usedJSHeapSize : -1];";
+
+    /**
+     * At most health.probeThreads probes run at once, with no queue: a probe that cannot start at once would
+     * spend its timeout waiting, so it is skipped instead. Timed-out probes are interrupted, freeing their thread
+     */
+    private static final int PROBE_THREADS = Math.max(1, ConfigManager.getInt("health.probeThreads", 4));
+    private static final ThreadPoolExecutor PROBES = new ThreadPoolExecutor(PROBE_THREADS, PROBE_THREADS,
+            30L, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "browser-health-probe");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        PROBES.allowCoreThreadTimeOut(true);
+    }
+
+    /** Pages CDP Performance.enable was sent to; several pages can share one driver when multiplexed */
+    private static final Set<Object> PERFORMANCE_ENABLED = ConcurrentHashMap.newKeySet();
+
+    private static final AtomicLong SAMPLES = new AtomicLong();
+    private static final Map<String, AtomicInteger> RECYCLED = new ConcurrentHashMap<>();
+    private static final LongAccumulator PEAK_HEAP = new LongAccumulator(Math::max, 0L);
+    private static final LongAccumulator PEAK_NODES = new LongAccumulator(Math::max, 0L);
+    private static final LongAccumulator PEAK_RSS = new LongAccumulator(Math::max, 0L);
+
+    private BrowserHealthMonitor() { }
+
+    public static boolean isEnabled() {
+        return ConfigManager.getBoolean("health.enabled", true);
+    }
+
+    /**
+     * Sample the session and decide whether it may serve another test
+     * @return false when the session crossed a limit or did not respond and should be recycled
+     */
+    public static boolean isFitForReuse(WebDriver driver) {
+        return isFitForReuse(driver, driver);
+    }
+
+    /**
+     * Sample a browser shared by several tests through its own driver, switched to the page of the test
+     * identified by page; the caller holds the browser, so the probe never waits for another test
+     */
+    static boolean isFitForReuse(WebDriver driver, Object page) {
+        if (!isEnabled()) {
+            return true;
+        }
+        long timeoutMs = ConfigManager.getLong("health.probeTimeoutMs", 5000L);
+        long start = OperationMetrics.start();
+        Sample sample;
+        Future<Sample> probe = null;
+        try {
+            probe = PROBES.submit(() -> sample(driver, page));
+            sample = probe.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            Logger.warn("All " + PROBE_THREADS + " health probe threads are busy - health check skipped");
+            return true;
+        } catch (TimeoutException e) {
+            probe.cancel(true);
+            return recycle("unresponsive", "Browser did not answer the health probe within " + timeoutMs + " ms");
+        } catch (ExecutionException e) {
+            return recycle("unresponsive", "Browser health probe failed: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            probe.cancel(true);
+            Thread.currentThread().interrupt();
+            return true;
+        } finally {
+            OperationMetrics.record("healthProbe", start);
+        }
+        SAMPLES.incrementAndGet();
+        PEAK_HEAP.accumulate(sample.heapBytes);
+        PEAK_NODES.accumulate(sample.domNodes);
+        PEAK_RSS.accumulate(sample.rssBytes);
+
+        String exceeded = exceeded(sample);
+        String message = "Browser health: " + sample;
+        if (exceeded != null) {
+            return recycle(exceeded, message + " - over health.max" + exceeded + ", recycling the session");
+        }
+        ExtentTestManager.logInfo(message);
+        return true;
+    }
+
+    /**
+     * Forget per-page state of a session that is about to quit or a multiplexed test that left
+     */
+    static void forget(Object page) {
+        PERFORMANCE_ENABLED.remove(page);
+    }
+
+    /**
+     * Add sample counts, peaks and recycling reasons to the report's system info
+     */
+    public static void publish() {
+        if (SAMPLES.get() == 0L && RECYCLED.isEmpty()) {
+            return;
+        }
+        ExtentManager.setSystemInfo("Browser health samples", String.valueOf(SAMPLES.get()));
+        ExtentManager.setSystemInfo("Browser health peaks", String.format(Locale.ROOT,
+                "JS heap %s, DOM nodes %d, browser RSS %s",
+                mb(PEAK_HEAP.get()), PEAK_NODES.get(), mb(PEAK_RSS.get())));
+        String recycled = RECYCLED.isEmpty() ? "none" : new TreeMap<>(RECYCLED).toString();
+        ExtentManager.setSystemInfo("Browser sessions recycled", recycled);
+        Logger.info("Browser health - samples: " + SAMPLES.get() + ", recycled: " + recycled);
+    }
+
+    private static boolean recycle(String reason, String message) {
+        RECYCLED.computeIfAbsent(reason, ignored -> new AtomicInteger()).incrementAndGet();
+        OperationMetrics.increment("healthProbe.recycled");
+        ExtentTestManager.logWarning(message);
+        return false;
+    }
+
+    /**
+     * Name of the first limit the sample is over, or null; a limit of 0 is not checked
+     */
+    private static String exceeded(Sample sample) {
+        long maxHeapMb = ConfigManager.getLong("health.maxJsHeapMb", 0L);
+        if (maxHeapMb > 0L && sample.heapBytes > maxHeapMb * MB) {
+            return "JsHeapMb";
+        }
+        long maxNodes = ConfigManager.getLong("health.maxDomNodes", 0L);
+        if (maxNodes > 0L && sample.domNodes > maxNodes) {
+            return "DomNodes";
+        }
+        long maxRssMb = ConfigManager.getLong("health.maxRssMb", 0L);
+        if (maxRssMb > 0L && sample.rssBytes > maxRssMb * MB) {
+            return "RssMb";
+        }
+        return null;
+    }
+
+    private static Sample sample(WebDriver driver, Object page) {
+        long probeStart = System.nanoTime();
+        List<?> probe = (List<?>) ((JavascriptExecutor) driver).executeScript(PROBE_SCRIPT);
+        long probeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - probeStart);
+        long domNodes = ((Number) probe.get(0)).longValue();
+        long heapBytes = ((Number) probe.get(1)).longValue();
+        if (driver instanceof HasCdp) {
+            Map<String, Number> metrics = cdpMetrics((HasCdp) driver, page);
+            // Nodes also counts detached nodes still held by scripts - the usual leak
+            domNodes = metrics.getOrDefault("Nodes", domNodes).longValue();
+            heapBytes = metrics.getOrDefault("JSHeapUsedSize", heapBytes).longValue();
+        }
+        return new Sample(heapBytes, domNodes, BrowserProcessMemory.residentBytes(driver), probeMillis);
+    }
+
+    private static Map<String, Number> cdpMetrics(HasCdp cdp, Object page) {
+        try {
+            if (PERFORMANCE_ENABLED.add(page)) {
+                cdp.executeCdpCommand("Performance.enable", Map.of());
+            }
+            Map<String, Number> metrics = new HashMap<>();
+            Object list = cdp.executeCdpCommand("Performance.getMetrics", Map.of()).get("metrics");
+            for (Object entry : (List<?>) list) {
+                Map<?, ?> metric = (Map<?, ?>) entry;
+                metrics.put(String.valueOf(metric.get("name")), (Number) metric.get("value"));
+            }
+            return metrics;
+        } catch (RuntimeException e) {
+            Logger.debug("CDP performance metrics unavailable, using page values: " + e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private static String mb(long bytes) {
+        return bytes < 0L ? "n/a" : String.format(Locale.ROOT, "%.0f MB", bytes / MB);
+    }
+
+    private static final class Sample {
+        final long heapBytes;
+        final long domNodes;
+        final long rssBytes;
+        final long probeMillis;
+
+        Sample(long heapBytes, long domNodes, long rssBytes, long probeMillis) {
+            this.heapBytes = heapBytes;
+            this.domNodes = domNodes;
+            this.rssBytes = rssBytes;
+            this.probeMillis = probeMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "JS heap %s, DOM nodes %d, browser RSS %s, probe %d ms",
+                    mb(heapBytes), domNodes, mb(rssBytes), probeMillis);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package utils;
+
+import org.openqa.selenium.By;
+
+/**
+ * Translates Selenium locators into selectors that page scripts can evaluate
+ */
+public final class BrowserLocator {
+
+    private BrowserLocator() { }
+
+    /**
+     * Strategy ("css" or "xpath") and expression for the locator, or null when it cannot be evaluated in the page
+     */
+    public static String[] toSelector(By locator) {
+        String description = locator.toString();
+        int separator = description.indexOf(": ");
+        if (separator < 0) {
+            return null;
+        }
+        String strategy = description.substring(0, separator);
+        String value = description.substring(separator + 2);
+        switch (strategy) {
+            case "By.xpath":
+                return new String[] {"xpath", value};
+            case "By.cssSelector":
+                return new String[] {"css", value};
+            case "By.id":
+                return new String[] {"css", "[id=\"" + escapeCssString(value) + "\"]"};
+            case "By.name":
+                return new String[] {"css", "[name=\"" + escapeCssString(value) + "\"]"};
+            case "By.className":
+                return new String[] {"css", "[class~=\"" + escapeCssString(value) + "\"]"};
+            case "By.tagName":
+                return new String[] {"css", value};
+            default:
+                // linkText / partialLinkText and custom locators have no CSS or XPath equivalent here
+                return null;
+        }
+    }
+
+    private static String escapeCssString(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -0,0 +1,140 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongUnaryOperator;
+
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Memory of the browser behind a session: the main browser process plus all of its renderer, GPU and
+ * utility children. The main process is found from the session capabilities (moz:processID for Firefox,
+ * the user data directory for Chromium). Reads /proc, so sizes are only available on Linux; elsewhere -1
+ * is returned
+ */
+public final class BrowserProcessMemory {
+
+    private static final Path PROC = Paths.get("/proc");
+    private static final long UNKNOWN = -1L;
+
+    private static final Map<WebDriver, Long> ROOT_PIDS = new ConcurrentHashMap<>();
+
+    private BrowserProcessMemory() { }
+
+    public static boolean isSupported() {
+        return Files.isDirectory(PROC.resolve("self"));
+    }
+
+    /**
+     * Resident set size of the session's browser processes in bytes, or -1 if it cannot be determined
+     */
+    public static long residentBytes(WebDriver driver) {
+        return treeBytes(driver, BrowserProcessMemory::residentBytes);
+    }
+
+    /**
+     * Proportional set size of the session's browser processes in bytes, or -1 if it cannot be determined
+     * Pages shared between the processes count once in total instead of once per process, so this is
+     * the figure to compare browsers by; falls back to VmRSS where smaps_rollup is unavailable
+     */
+    public static long proportionalBytes(WebDriver driver) {
+        return treeBytes(driver, BrowserProcessMemory::proportionalBytes);
+    }
+
+    private static long treeBytes(WebDriver driver, LongUnaryOperator bytesOfPid) {
+        if (!isSupported()) {
+            return UNKNOWN;
+        }
+        Long pid = ROOT_PIDS.computeIfAbsent(driver, BrowserProcessMemory::findRootPid);
+        if (pid == UNKNOWN) {
+            return UNKNOWN;
+        }
+        Optional<ProcessHandle> root = ProcessHandle.of(pid);
+        if (root.isEmpty()) {
+            ROOT_PIDS.remove(driver);
+            return UNKNOWN;
+        }
+        long total = bytesOfPid.applyAsLong(pid);
+        for (ProcessHandle child : (Iterable<ProcessHandle>) root.get().descendants()::iterator) {
+            total += Math.max(0L, bytesOfPid.applyAsLong(child.pid()));
+        }
+        return total;
+    }
+
+    /**
+     * Forget the cached process of a session that is about to quit
+     */
+    static void forget(WebDriver driver) {
+        ROOT_PIDS.remove(driver);
+    }
+
+    private static long findRootPid(WebDriver driver) {
+        if (!(driver instanceof HasCapabilities)) {
+            return UNKNOWN;
+        }
+        Capabilities capabilities = ((HasCapabilities) driver).getCapabilities();
+        Object firefoxPid = capabilities.getCapability("moz:processID");
+        if (firefoxPid instanceof Number) {
+            return ((Number) firefoxPid).longValue();
+        }
+        String userDataDir = userDataDir(capabilities);
+        if (userDataDir == null) {
+            return UNKNOWN;
+        }
+        String flag = "--user-data-dir=" + userDataDir;
+        return ProcessHandle.allProcesses()
+                .filter(process -> {
+                    List<String> arguments = List.of(process.info().arguments().orElse(new String[0]));
+                    // Child processes carry --type=renderer/gpu-process/utility
+                    return arguments.contains(flag) && arguments.stream().noneMatch(a -> a.startsWith("--type="));
+                })
+                .mapToLong(ProcessHandle::pid)
+                .findFirst()
+                .orElse(UNKNOWN);
+    }
+
+    private static String userDataDir(Capabilities capabilities) {
+        for (String key : new String[] {"chrome", "msedge"}) {
+            Object details = capabilities.getCapability(key);
+            if (details instanceof Map && ((Map<?, ?>) details).get("userDataDir") != null) {
+                return String.valueOf(((Map<?, ?>) details).get("userDataDir"));
+            }
+        }
+        return null;
+    }
+
+    private static long residentBytes(long pid) {
+        long bytes = kilobytes(PROC.resolve(Long.toString(pid)).resolve("status"), "VmRSS:");
+        return Math.max(0L, bytes);
+    }
+
+    private static long proportionalBytes(long pid) {
+        long bytes = kilobytes(PROC.resolve(Long.toString(pid)).resolve("smaps_rollup"), "Pss:");
+        return bytes < 0L ? residentBytes(pid) : bytes;
+    }
+
+    /**
+     * Value of a "Name:   123456 kB" line in bytes, or -1 when the file or the line cannot be read
+     */
+    private static long kilobytes(Path file, String name) {
+        try {
+            for (String line : Files.readAllLines(file)) {
+                if (line.startsWith(name)) {
+                    String[] parts = line.trim().split("\\s+");
+                    return Long.parseLong(parts[1]) * 1024L;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Process exited while walking the tree, or the file is not readable
+        }
+        return UNKNOWN;
+    }
+}
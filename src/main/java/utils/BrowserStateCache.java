@@ -0,0 +1,456 @@
+package utils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.json.Json;
+
+/**
+ * Cookies, localStorage and sessionStorage captured once per origin after a setup journey (such as
+ * cookie consent) and injected into later sessions before their first navigation to that origin.
+ * Chromium sessions receive the state through CDP without an extra page load; other browsers first load
+ * browserState.primePath on the origin. A snapshot is discarded once it is older than browserState.maxAge
+ * or when the hash of its journey's inputs (registerJourney) no longer matches
+ */
+public final class BrowserStateCache {
+
+    private static final String FLAG_PREFIX = "__pom_state_";
+
+    private static final String CAPTURE_SCRIPT = """
+            function copy(storage) {
+              var values = {};
+              for (var i = 0; i < storage.length; i++) {
+                var key = storage.key(i);
+                if (key.indexOf('%1$s') !== 0) { values[key] = storage.getItem(key); }
+              }
+              return values;
+            }
+            return { origin: location.origin, local: copy(localStorage), session: copy(sessionStorage) };
+            """.formatted(FLAG_PREFIX);
+
+    /** Applies a snapshot's storage once per tab; the flag lives in sessionStorage so a pool reset re-arms it */
+    private static final String STORAGE_SCRIPT = """
+            (function (snapshot, flag) {
+              try {
+                if (location.origin !== snapshot.origin || sessionStorage.getItem(flag)) { return; }
+                Object.keys(snapshot.local).forEach(function (k) { localStorage.setItem(k, snapshot.local[k]); });
+                Object.keys(snapshot.session).forEach(function (k) { sessionStorage.setItem(k, snapshot.session[k]); });
+                sessionStorage.setItem(flag, '1');
+              } catch (e) { }
+            })(%s, %s);
+            """;
+
+    /**
+     * Markers the framework itself once wrote into the application; restoring one would make the next
+     * session look handled to code that trusts it, so they are never captured or injected
+     */
+    private static final Set<String> FRAMEWORK_COOKIES = Set.of("__pom_consent_handled");
+
+    private static final boolean PERSIST = ConfigManager.getBoolean("browserState.persist", false);
+    private static final Path DIRECTORY = Paths.get(ConfigManager.get("browserState.dir", "test-output/state"));
+    private static final Json JSON = new Json();
+
+    private static final Map<String, Snapshot> SNAPSHOTS = new ConcurrentHashMap<>();
+    private static final Map<String, Supplier<String>> JOURNEYS = new ConcurrentHashMap<>();
+    private static final Map<WebDriver, SessionState> SESSIONS = new ConcurrentHashMap<>();
+
+    static {
+        if (PERSIST) {
+            loadPersisted();
+        }
+    }
+
+    private BrowserStateCache() { }
+
+    /**
+     * Read per call so tests that override browserState.enabled get their own setting
+     */
+    public static boolean isEnabled() {
+        return ConfigManager.getBoolean("browserState.enabled", true);
+    }
+
+    /**
+     * Declare the inputs a journey depends on (selectors, versions); snapshots captured with different
+     * inputs are discarded
+     */
+    public static void registerJourney(String journey, Supplier<String> inputs) {
+        JOURNEYS.put(journey, inputs);
+    }
+
+    /**
+     * Snapshot the current origin's cookies and storage after the journey completed
+     */
+    public static void capture(WebDriver driver, String journey) {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            Map<?, ?> storage = (Map<?, ?>) ((JavascriptExecutor) driver).executeScript(CAPTURE_SCRIPT);
+            String origin = String.valueOf(storage.get("origin"));
+            if (!origin.startsWith("http")) {
+                return;
+            }
+            Snapshot snapshot = new Snapshot(journey, origin, System.currentTimeMillis(), inputsHash(journey),
+                    new ArrayList<>(driver.manage().getCookies()), strings(storage.get("local")),
+                    strings(storage.get("session")));
+            Snapshot previous = SNAPSHOTS.put(snapshot.key(), snapshot);
+            session(driver).applied.add(snapshot.key());
+            if (previous != null && previous.contentHash.equals(snapshot.contentHash)) {
+                Logger.debug("Browser state for " + snapshot.key() + " unchanged");
+                return;
+            }
+            Logger.info("Captured browser state for " + snapshot.key() + " - " + snapshot.cookies.size()
+                    + " cookie(s), " + (snapshot.local.size() + snapshot.session.size()) + " storage item(s)");
+            if (PERSIST) {
+                persist(snapshot);
+            }
+        } catch (RuntimeException e) {
+            Logger.warn("Failed to capture browser state for " + journey + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * True if the journey's state for the current page's origin was injected into (or captured in) this session
+     */
+    public static boolean isRestored(WebDriver driver, String journey) {
+        if (!isEnabled()) {
+            return false;
+        }
+        SessionState session = SESSIONS.get(driver);
+        return session != null && session.applied.contains(journey + " " + origin(driver.getCurrentUrl()));
+    }
+
+    /**
+     * Inject valid snapshots for the URL's origin that this session has not received yet
+     */
+    public static void beforeNavigate(WebDriver driver, String url) {
+        if (!isEnabled() || SNAPSHOTS.isEmpty()) {
+            return;
+        }
+        String origin = origin(url);
+        SessionState session = session(driver);
+        if (driver instanceof HasCdp) {
+            removeStaleScripts((HasCdp) driver, session);
+        }
+        for (Snapshot snapshot : SNAPSHOTS.values()) {
+            if (!snapshot.origin.equals(origin) || session.applied.contains(snapshot.key()) || !isValid(snapshot)) {
+                continue;
+            }
+            try {
+                if (driver instanceof HasCdp) {
+                    injectCdp((HasCdp) driver, session, snapshot);
+                } else {
+                    injectByNavigation(driver, snapshot);
+                }
+                session.applied.add(snapshot.key());
+                OperationMetrics.increment("browserState.restored");
+            } catch (RuntimeException e) {
+                Logger.warn("Failed to restore browser state for " + snapshot.key() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A pooled session was reset: its cookies and storage are gone, injected scripts remain
+     */
+    static void sessionReset(WebDriver driver) {
+        SessionState session = SESSIONS.get(driver);
+        if (session != null) {
+            session.applied.clear();
+        }
+    }
+
+    /**
+     * Drop bookkeeping for a session that is about to quit
+     */
+    static void forget(WebDriver driver) {
+        SESSIONS.remove(driver);
+    }
+
+    private static boolean isValid(Snapshot snapshot) {
+        if (System.currentTimeMillis() - snapshot.capturedAt > ConfigManager.getDuration("browserState.maxAge", Duration.ofMinutes(30)).toMillis()) {
+            Logger.debug("Browser state for " + snapshot.key() + " expired");
+            SNAPSHOTS.remove(snapshot.key(), snapshot);
+            return false;
+        }
+        if (!snapshot.inputsHash.equals(inputsHash(snapshot.journey))) {
+            Logger.debug("Browser state for " + snapshot.key() + " captured with different journey inputs");
+            SNAPSHOTS.remove(snapshot.key(), snapshot);
+            return false;
+        }
+        return true;
+    }
+
+    private static void injectCdp(HasCdp cdp, SessionState session, Snapshot snapshot) {
+        List<Map<String, Object>> cookies = new ArrayList<>();
+        for (Cookie cookie : snapshot.cookies) {
+            Map<String, Object> params = new HashMap<>();
+            params.put("name", cookie.getName());
+            params.put("value", cookie.getValue());
+            params.put("path", cookie.getPath() != null ? cookie.getPath() : "/");
+            params.put("secure", cookie.isSecure());
+            params.put("httpOnly", cookie.isHttpOnly());
+            if (cookie.getDomain() != null && cookie.getDomain().startsWith(".")) {
+                params.put("domain", cookie.getDomain());
+            } else {
+                // Host-only cookie: bind it to the origin
+                params.put("url", snapshot.origin + params.get("path"));
+            }
+            if (cookie.getExpiry() != null) {
+                params.put("expires", cookie.getExpiry().getTime() / 1000L);
+            }
+            if (cookie.getSameSite() != null) {
+                params.put("sameSite", cookie.getSameSite());
+            }
+            cookies.add(params);
+        }
+        if (!cookies.isEmpty()) {
+            cdp.executeCdpCommand("Network.setCookies", Map.of("cookies", cookies));
+        }
+        InstalledScript installed = session.scripts.get(snapshot.key());
+        if (snapshot.hasStorage() && (installed == null || !installed.contentHash.equals(snapshot.contentHash))) {
+            Map<String, Object> result = cdp.executeCdpCommand("Page.addScriptToEvaluateOnNewDocument",
+                    Map.of("source", storageScript(snapshot)));
+            session.scripts.put(snapshot.key(),
+                    new InstalledScript(snapshot.contentHash, String.valueOf(result.get("identifier"))));
+        }
+    }
+
+    /**
+     * Uninstall storage scripts of snapshots that were replaced, expired or invalidated since injection
+     */
+    private static void removeStaleScripts(HasCdp cdp, SessionState session) {
+        session.scripts.entrySet().removeIf(entry -> {
+            Snapshot current = SNAPSHOTS.get(entry.getKey());
+            if (current != null && current.contentHash.equals(entry.getValue().contentHash)) {
+                return false;
+            }
+            try {
+                cdp.executeCdpCommand("Page.removeScriptToEvaluateOnNewDocument",
+                        Map.of("identifier", entry.getValue().identifier));
+            } catch (RuntimeException e) {
+                Logger.debug("Failed to remove browser state script: " + e.getMessage());
+            }
+            return true;
+        });
+    }
+
+    private static void injectByNavigation(WebDriver driver, Snapshot snapshot) {
+        driver.navigate().to(snapshot.origin + ConfigManager.get("browserState.primePath", "/favicon.ico"));
+        for (Cookie cookie : snapshot.cookies) {
+            driver.manage().addCookie(cookie);
+        }
+        if (snapshot.hasStorage()) {
+            ((JavascriptExecutor) driver).executeScript(storageScript(snapshot));
+        }
+    }
+
+    private static String storageScript(Snapshot snapshot) {
+        Map<String, Object> storage = Map.of("origin", snapshot.origin, "local", snapshot.local,
+                "session", snapshot.session);
+        return STORAGE_SCRIPT.formatted(JSON.toJson(storage),
+                JSON.toJson(FLAG_PREFIX + snapshot.contentHash.substring(0, 12)));
+    }
+
+    private static SessionState session(WebDriver driver) {
+        return SESSIONS.computeIfAbsent(driver, ignored -> new SessionState());
+    }
+
+    private static String inputsHash(String journey) {
+        Supplier<String> inputs = JOURNEYS.get(journey);
+        return sha256(inputs != null ? inputs.get() : "");
+    }
+
+    static String origin(String url) {
+        try {
+            URI uri = URI.create(url);
+            if (uri.getScheme() == null || uri.getHost() == null) {
+                return "";
+            }
+            return uri.getScheme() + "://" + uri.getHost() + (uri.getPort() >= 0 ? ":" + uri.getPort() : "");
+        } catch (IllegalArgumentException e) {
+            return "";
+        }
+    }
+
+    private static Map<String, String> strings(Object raw) {
+        Map<String, String> values = new LinkedHashMap<>();
+        if (raw instanceof Map) {
+            ((Map<?, ?>) raw).forEach((key, value) -> values.put(String.valueOf(key), String.valueOf(value)));
+        }
+        return values;
+    }
+
+    private static void persist(Snapshot snapshot) {
+        try {
+            Files.createDirectories(DIRECTORY);
+            Files.writeString(DIRECTORY.resolve(snapshot.contentHash.substring(0, 16) + ".json"),
+                    JSON.toJson(snapshot.toMap()), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            Logger.warn("Failed to persist browser state for " + snapshot.key() + ": " + e.getMessage());
+        }
+    }
+
+    private static void loadPersisted() {
+        if (!Files.isDirectory(DIRECTORY)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(DIRECTORY, "*.json")) {
+            for (Path file : files) {
+                try {
+                    Map<String, Object> stored = JSON.toType(Files.readString(file), Json.MAP_TYPE);
+                    Snapshot snapshot = Snapshot.fromMap(stored);
+                    Snapshot current = SNAPSHOTS.get(snapshot.key());
+                    // A content hash that no longer matches means the file was edited or truncated
+                    if (snapshot.contentHash.equals(stored.get("contentHash"))
+                            && (current == null || current.capturedAt < snapshot.capturedAt)) {
+                        SNAPSHOTS.put(snapshot.key(), snapshot);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    Logger.debug("Ignoring unreadable browser state " + file + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            Logger.warn("Failed to read browser state from " + DIRECTORY + ": " + e.getMessage());
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class SessionState {
+        /** Snapshot keys whose state this session currently holds */
+        final Set<String> applied = ConcurrentHashMap.newKeySet();
+        /** Storage scripts installed per snapshot key (they survive pool resets) */
+        final Map<String, InstalledScript> scripts = new ConcurrentHashMap<>();
+    }
+
+    private static final class InstalledScript {
+        final String contentHash;
+        final String identifier;
+
+        InstalledScript(String contentHash, String identifier) {
+            this.contentHash = contentHash;
+            this.identifier = identifier;
+        }
+    }
+
+    private static final class Snapshot {
+        final String journey;
+        final String origin;
+        final long capturedAt;
+        final String inputsHash;
+        final List<Cookie> cookies;
+        final Map<String, String> local;
+        final Map<String, String> session;
+        final String contentHash;
+
+        Snapshot(String journey, String origin, long capturedAt, String inputsHash, List<Cookie> cookies,
+                Map<String, String> local, Map<String, String> session) {
+            this.journey = journey;
+            this.origin = origin;
+            this.capturedAt = capturedAt;
+            this.inputsHash = inputsHash;
+            // Applies to captured and to persisted snapshots, so older state files are cleaned on load
+            this.cookies = cookies.stream().filter(cookie -> !FRAMEWORK_COOKIES.contains(cookie.getName()))
+                    .collect(Collectors.toList());
+            this.local = local;
+            this.session = session;
+            this.contentHash = computeContentHash();
+        }
+
+        String key() {
+            return journey + " " + origin;
+        }
+
+        boolean hasStorage() {
+            return !local.isEmpty() || !session.isEmpty();
+        }
+
+        private String computeContentHash() {
+            StringBuilder content = new StringBuilder(origin).append('\n').append(inputsHash);
+            cookies.stream().map(cookie -> cookie.getName() + "=" + cookie.getValue() + ";" + cookie.getDomain()
+                    + ";" + cookie.getPath()).sorted().forEach(line -> content.append('\n').append(line));
+            content.append('\n').append(local).append('\n').append(session);
+            return sha256(content.toString());
+        }
+
+        Map<String, Object> toMap() {
+            List<Map<String, Object>> cookieMaps = new ArrayList<>();
+            for (Cookie cookie : cookies) {
+                Map<String, Object> map = new LinkedHashMap<>();
+                map.put("name", cookie.getName());
+                map.put("value", cookie.getValue());
+                map.put("domain", cookie.getDomain());
+                map.put("path", cookie.getPath());
+                map.put("expiry", cookie.getExpiry() != null ? cookie.getExpiry().getTime() : null);
+                map.put("secure", cookie.isSecure());
+                map.put("httpOnly", cookie.isHttpOnly());
+                map.put("sameSite", cookie.getSameSite());
+                cookieMaps.add(map);
+            }
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("journey", journey);
+            map.put("origin", origin);
+            map.put("capturedAt", capturedAt);
+            map.put("inputsHash", inputsHash);
+            map.put("contentHash", contentHash);
+            map.put("cookies", cookieMaps);
+            map.put("local", local);
+            map.put("session", session);
+            return map;
+        }
+
+        static Snapshot fromMap(Map<String, Object> map) {
+            List<Cookie> cookies = new ArrayList<>();
+            for (Object raw : (List<?>) map.get("cookies")) {
+                Map<?, ?> cookie = (Map<?, ?>) raw;
+                Cookie.Builder builder = new Cookie.Builder(String.valueOf(cookie.get("name")),
+                        String.valueOf(cookie.get("value")))
+                        .path((String) cookie.get("path"))
+                        .isSecure(Boolean.TRUE.equals(cookie.get("secure")))
+                        .isHttpOnly(Boolean.TRUE.equals(cookie.get("httpOnly")))
+                        .sameSite((String) cookie.get("sameSite"));
+                if (cookie.get("domain") != null) {
+                    builder.domain((String) cookie.get("domain"));
+                }
+                if (cookie.get("expiry") != null) {
+                    builder.expiresOn(new Date(((Number) cookie.get("expiry")).longValue()));
+                }
+                cookies.add(builder.build());
+            }
+            return new Snapshot((String) map.get("journey"), (String) map.get("origin"),
+                    ((Number) map.get("capturedAt")).longValue(), (String) map.get("inputsHash"), cookies,
+                    strings(map.get("local")), strings(map.get("session")));
+        }
+    }
+}
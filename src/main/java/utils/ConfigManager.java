@@ -2,11 +2,20 @@ package utils;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
 
+/**
+ * Resolves configuration once at startup (system properties, then environment, then config.properties)
+ * into an immutable ConfigSnapshot; tests can bind a derived snapshot to their thread
+ */
 public class ConfigManager {
     private static final Properties PROPERTIES = new Properties();
+    private static final ThreadLocal<ConfigSnapshot> THREAD_SNAPSHOT = new ThreadLocal<>();
+    private static final ConfigSnapshot BASE_SNAPSHOT;
 
     static {
         try (InputStream inputStream = getResourceAsStream("config.properties")) {
@@ -15,6 +24,7 @@ public class ConfigManager {
             }
         } catch (IOException ignored) {
         }
+        BASE_SNAPSHOT = resolveBaseSnapshot();
     }
 
     private static InputStream getResourceAsStream(String fileName) {
@@ -26,25 +36,76 @@ public class ConfigManager {
         return stream;
     }
 
-    public static String get(String key, String defaultValue) {
-        String sys = System.getProperty(key);
-        if (Objects.nonNull(sys) && !sys.isBlank()) {
-            return sys;
+    /**
+     * Merge the sources with the same precedence get() always had: system property > environment > file
+     */
+    private static ConfigSnapshot resolveBaseSnapshot() {
+        Map<String, String> values = new HashMap<>();
+        for (String key : PROPERTIES.stringPropertyNames()) {
+            putIfPresent(values, key, PROPERTIES.getProperty(key));
         }
-        String env = System.getenv(key);
-        if (Objects.nonNull(env) && !env.isBlank()) {
-            return env;
+        System.getenv().forEach((key, value) -> putIfPresent(values, key, value));
+        Properties system = System.getProperties();
+        for (String key : system.stringPropertyNames()) {
+            putIfPresent(values, key, system.getProperty(key));
         }
-        String value = PROPERTIES.getProperty(key);
+        return new ConfigSnapshot(values);
+    }
+
+    private static void putIfPresent(Map<String, String> values, String key, String value) {
         if (Objects.nonNull(value) && !value.isBlank()) {
-            return value;
+            values.put(key, value);
         }
-        return defaultValue;
+    }
+
+    /**
+     * Snapshot bound to the current thread, or the JVM-wide base snapshot
+     */
+    public static ConfigSnapshot snapshot() {
+        ConfigSnapshot bound = THREAD_SNAPSHOT.get();
+        return bound != null ? bound : BASE_SNAPSHOT;
+    }
+
+    public static ConfigSnapshot baseSnapshot() {
+        return BASE_SNAPSHOT;
+    }
+
+    /**
+     * Bind a snapshot to the current thread, e.g. one derived with per-test overrides
+     */
+    public static void bind(ConfigSnapshot snapshot) {
+        THREAD_SNAPSHOT.set(snapshot);
+    }
+
+    public static void unbind() {
+        THREAD_SNAPSHOT.remove();
+    }
+
+    public static String get(String key, String defaultValue) {
+        return snapshot().get(key, defaultValue);
     }
 
     public static String get(String key) {
         return get(key, null);
     }
-}
 
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        return snapshot().getBoolean(key, defaultValue);
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        return snapshot().getInt(key, defaultValue);
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        return snapshot().getLong(key, defaultValue);
+    }
+
+    public static double getDouble(String key, double defaultValue) {
+        return snapshot().getDouble(key, defaultValue);
+    }
 
+    public static Duration getDuration(String key, Duration defaultValue) {
+        return snapshot().getDuration(key, defaultValue);
+    }
+}
@@ -0,0 +1,16 @@
+package utils;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Per-test configuration overrides as "key=value" pairs, applied to the test's config snapshot
+ * e.g. {@code @ConfigOverride({"headless=true", "driver.pool.enabled=false"})}
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface ConfigOverride {
+    String[] value();
+}
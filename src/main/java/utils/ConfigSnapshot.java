@@ -0,0 +1,125 @@
+package utils;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Immutable, fully resolved view of the framework configuration
+ * Lookups are a single map read; typed values are parsed once and memoized, so snapshots
+ * can be shared between threads without locking
+ */
+public final class ConfigSnapshot {
+
+    private final Map<String, String> values;
+    private final Map<String, Object> parsed = new ConcurrentHashMap<>();
+
+    ConfigSnapshot(Map<String, String> values) {
+        this.values = Collections.unmodifiableMap(new HashMap<>(values));
+    }
+
+    /**
+     * Derive a snapshot with the given entries replacing existing ones; this snapshot is unchanged
+     */
+    public ConfigSnapshot withOverrides(Map<String, String> overrides) {
+        if (overrides.isEmpty()) {
+            return this;
+        }
+        Map<String, String> merged = new HashMap<>(values);
+        overrides.forEach((key, value) -> {
+            if (Objects.nonNull(value) && !value.isBlank()) {
+                merged.put(key, value);
+            }
+        });
+        return new ConfigSnapshot(merged);
+    }
+
+    public String get(String key, String defaultValue) {
+        return values.getOrDefault(key, defaultValue);
+    }
+
+    public String get(String key) {
+        return values.get(key);
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        Boolean value = typed(key, "boolean", Boolean::parseBoolean);
+        return value != null ? value : defaultValue;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        Integer value = typed(key, "int", raw -> Integer.parseInt(raw.trim()));
+        return value != null ? value : defaultValue;
+    }
+
+    public long getLong(String key, long defaultValue) {
+        Long value = typed(key, "long", raw -> Long.parseLong(raw.trim()));
+        return value != null ? value : defaultValue;
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        Double value = typed(key, "double", raw -> Double.parseDouble(raw.trim()));
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * Duration value: plain numbers are seconds; "500ms", "30s", "2m", "1h" and ISO-8601 (PT30S) are accepted
+     */
+    public Duration getDuration(String key, Duration defaultValue) {
+        Duration value = typed(key, "duration", ConfigSnapshot::parseDuration);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * Enum value matched case-insensitively against constant names
+     */
+    public <E extends Enum<E>> E getEnum(String key, Class<E> type, E defaultValue) {
+        E value = typed(key, type.getName(), raw -> Enum.valueOf(type, raw.trim().toUpperCase(Locale.ROOT)));
+        return value != null ? value : defaultValue;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T typed(String key, String type, Function<String, T> parser) {
+        String raw = values.get(key);
+        if (raw == null) {
+            return null;
+        }
+        return (T) parsed.computeIfAbsent(type + ':' + key, ignored -> {
+            try {
+                return parser.apply(raw);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid " + type + " value for config key '" + key + "': " + raw, e);
+            }
+        });
+    }
+
+    private static Duration parseDuration(String raw) {
+        String value = raw.trim().toLowerCase(Locale.ROOT);
+        if (value.startsWith("pt")) {
+            return Duration.parse(value.toUpperCase(Locale.ROOT));
+        }
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2).trim()));
+        }
+        char unit = value.charAt(value.length() - 1);
+        if (Character.isDigit(unit)) {
+            return Duration.ofSeconds(Long.parseLong(value));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1).trim());
+        switch (unit) {
+            case 's':
+                return Duration.ofSeconds(amount);
+            case 'm':
+                return Duration.ofMinutes(amount);
+            case 'h':
+                return Duration.ofHours(amount);
+            default:
+                throw new IllegalArgumentException("Unknown duration unit '" + unit + "'");
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Resolves cookie consent banners with a single script call
+ * All candidate XPaths are checked in the page (waiting briefly for late banners) and the first visible
+ * match is clicked. The selector that worked is cached per host and tried first on later navigations
+ */
+public final class CookieConsentHandler {
+
+    private static final CopyOnWriteArrayList<String> DEFAULT_SELECTORS = new CopyOnWriteArrayList<>(List.of(
+            "//button[contains(text(), 'Accept') or contains(text(), 'Accept All')]",
+            "//button[contains(@id, 'accept') or contains(@class, 'accept')]",
+            "//button[contains(@data-testid, 'accept')]",
+            "//div[@id='usercentrics-cmp-ui']//button[contains(text(), 'Accept')]",
+            "//*[@id='usercentrics-cmp-ui']//button[1]"));
+
+    private static final Map<String, List<String>> SITE_SELECTORS = new ConcurrentHashMap<>();
+    private static final Map<String, String> WORKING_SELECTOR = new ConcurrentHashMap<>();
+
+    private static final String CONSENT_SCRIPT = """
+            var defaults = arguments[0], sites = arguments[1], cached = arguments[2], waitMs = arguments[3];
+            var done = arguments[arguments.length - 1];
+            var host = location.hostname;
+            var candidates = [];
+            if (cached[host]) { candidates.push(cached[host]); }
+            (sites[host] || []).concat(defaults).forEach(function (s) {
+              if (candidates.indexOf(s) < 0) { candidates.push(s); }
+            });
+            function visible(el) {
+              return el.checkVisibility ? el.checkVisibility({ checkVisibilityCSS: true })
+                                        : el.getClientRects().length > 0;
+            }
+            function attempt() {
+              for (var i = 0; i < candidates.length; i++) {
+                var el;
+                try {
+                  el = document.evaluate(candidates[i], document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;
+                } catch (e) { continue; }
+                if (el && visible(el)) {
+                  el.click();
+                  return { host: host, selector: candidates[i] };
+                }
+              }
+              return null;
+            }
+            var result = attempt();
+            if (result || waitMs <= 0) { done(result || { host: host }); return; }
+            var finished = false, observer, timer;
+            function finish(value) {
+              if (finished) { return; }
+              finished = true;
+              observer.disconnect();
+              clearTimeout(timer);
+              done(value);
+            }
+            observer = new MutationObserver(function () {
+              var found = attempt();
+              if (found) { finish(found); }
+            });
+            observer.observe(document.documentElement, { childList: true, subtree: true, attributes: true });
+            timer = setTimeout(function () { finish({ host: host }); }, waitMs);
+            """;
+
+    /** Synchronous check for a visible consent button among the candidates; no waiting, nothing clicked */
+    private static final String BANNER_SCRIPT = """
+            var defaults = arguments[0], sites = arguments[1];
+            return (sites[location.hostname] || []).concat(defaults).some(function (s) {
+              var el;
+              try {
+                el = document.evaluate(s, document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;
+              } catch (e) { return false; }
+              return !!el && (el.checkVisibility ? el.checkVisibility({ checkVisibilityCSS: true })
+                                                 : el.getClientRects().length > 0);
+            });
+            """;
+
+    /** Journey name under which the post-consent browser state is cached */
+    public static final String JOURNEY = "cookie-consent";
+
+    static {
+        BrowserStateCache.registerJourney(JOURNEY, CookieConsentHandler::fingerprint);
+    }
+
+    private CookieConsentHandler() { }
+
+    /**
+     * Register site-specific consent selectors (XPath), tried before the defaults on that host
+     */
+    public static void registerSelectors(String host, List<String> xpaths) {
+        SITE_SELECTORS.put(host, List.copyOf(xpaths));
+    }
+
+    /**
+     * Add a selector to the defaults tried on every host
+     */
+    public static void addDefaultSelector(String xpath) {
+        DEFAULT_SELECTORS.addIfAbsent(xpath);
+    }
+
+    /**
+     * Accept the cookie banner if one is shown (or appears within cookie.consent.waitMs)
+     * @return true if a consent button was clicked
+     */
+    public static boolean handle(WebDriver driver) {
+        long waitMillis = ConfigManager.getLong("cookie.consent.waitMs", TimeoutConfig.VERY_SHORT_TIMEOUT * 1000L);
+        Object raw = executeAsync(driver, waitMillis);
+        if (!(raw instanceof Map)) {
+            return false;
+        }
+        Map<?, ?> result = (Map<?, ?>) raw;
+        Object selector = result.get("selector");
+        if (selector == null) {
+            return false;
+        }
+
+        String host = String.valueOf(result.get("host"));
+        WORKING_SELECTOR.put(host, selector.toString());
+        Logger.debug("Cookie consent accepted on " + host + " using " + selector);
+        // Banners usually animate out; make sure it no longer covers the page before continuing
+        WaitEngine.current().invisible(driver, By.xpath(selector.toString()), TimeoutConfig.VERY_SHORT_TIMEOUT);
+        return true;
+    }
+
+    /**
+     * True if a consent button is visible right now - a single script call, so it is cheap enough to
+     * confirm that restored consent state was actually accepted by the site
+     */
+    public static boolean isBannerShown(WebDriver driver) {
+        return Boolean.TRUE.equals(((JavascriptExecutor) driver).executeScript(BANNER_SCRIPT,
+                new ArrayList<>(DEFAULT_SELECTORS), Map.copyOf(SITE_SELECTORS)));
+    }
+
+    /**
+     * Selectors the consent journey depends on; cached state captured with other selectors is discarded
+     */
+    private static String fingerprint() {
+        return DEFAULT_SELECTORS + "\n" + new TreeMap<>(SITE_SELECTORS);
+    }
+
+    private static Object executeAsync(WebDriver driver, long waitMillis) {
+        List<String> defaults = new ArrayList<>(DEFAULT_SELECTORS);
+        return ((JavascriptExecutor) driver).executeAsyncScript(CONSENT_SCRIPT,
+                defaults, Map.copyOf(SITE_SELECTORS), Map.copyOf(WORKING_SELECTOR), waitMillis);
+    }
+}
@@ -0,0 +1,189 @@
+package utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+import java.util.Properties;
+
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.remote.service.DriverFinder;
+import org.openqa.selenium.remote.service.DriverService;
+
+/**
+ * On-disk cache of driver and browser binary paths resolved by Selenium Manager
+ * Once an agent has resolved a browser, later runs reuse the paths and never call the resolver,
+ * so offline agents keep working as long as the cached binaries still exist. Entries are keyed by browser
+ * and requested browserVersion, and dropped when the browser binary has changed since it was resolved
+ * (an in-place browser update); a session that still fails to start with a cached entry invalidates it
+ */
+public final class DriverBinaryCache {
+
+    private static final Path CACHE_FILE = Paths.get(ConfigManager.get("driver.binaryCache.file",
+            Paths.get(System.getProperty("user.home"), ".cache", "selenium-pom-framework", "driver-binaries.properties")
+                    .toString()));
+
+    private static Properties entries;
+
+    private DriverBinaryCache() { }
+
+    /**
+     * Resolve driver (and browser, when managed) binaries for the browser, consulting the cache first
+     */
+    public static synchronized Binaries resolve(String browser, DriverService service, Capabilities options) {
+        boolean enabled = ConfigManager.getBoolean("driver.binaryCache.enabled", true);
+        String key = key(browser, options);
+        if (enabled) {
+            Binaries cached = lookup(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        DriverFinder finder = new DriverFinder(service, options);
+        Binaries resolved = new Binaries(finder.getDriverPath(), finder.hasBrowserPath() ? finder.getBrowserPath() : null,
+                false);
+        if (enabled) {
+            store(key, resolved);
+        }
+        return resolved;
+    }
+
+    /**
+     * Drop the cached entry after a session failed to start with it, so the next resolve asks Selenium Manager again
+     */
+    public static synchronized void invalidate(String browser, Capabilities options) {
+        String key = key(browser, options);
+        Properties properties = load();
+        if (properties.remove(key + ".driver") != null) {
+            properties.remove(key + ".browser");
+            properties.remove(key + ".browserModified");
+            Logger.info("Invalidated cached " + key + " driver binaries");
+            write(properties);
+        }
+    }
+
+    /**
+     * Cache key: browser plus the requested browserVersion ("installed" when none is requested)
+     */
+    static String key(String browser, Capabilities options) {
+        String version = options.getBrowserVersion();
+        return browser + "@" + (version == null || version.isBlank() ? "installed" : version.trim());
+    }
+
+    private static Binaries lookup(String key) {
+        Properties properties = load();
+        String driverPath = properties.getProperty(key + ".driver");
+        if (driverPath == null || !Files.isExecutable(Paths.get(driverPath))) {
+            return null;
+        }
+        String browserPath = properties.getProperty(key + ".browser");
+        if (browserPath != null) {
+            if (!Files.exists(Paths.get(browserPath))) {
+                return null;
+            }
+            String modified = properties.getProperty(key + ".browserModified");
+            if (modified != null && !modified.equals(lastModified(browserPath))) {
+                Logger.info("Browser binary " + browserPath + " changed since it was resolved - resolving " + key + " again");
+                return null;
+            }
+        }
+        return new Binaries(driverPath, browserPath, true);
+    }
+
+    private static void store(String key, Binaries binaries) {
+        Properties properties = load();
+        properties.setProperty(key + ".driver", binaries.getDriverPath());
+        String modified = binaries.getBrowserPath() == null ? null : lastModified(binaries.getBrowserPath());
+        if (binaries.getBrowserPath() != null) {
+            properties.setProperty(key + ".browser", binaries.getBrowserPath());
+        } else {
+            properties.remove(key + ".browser");
+        }
+        if (modified != null) {
+            properties.setProperty(key + ".browserModified", modified);
+        } else {
+            properties.remove(key + ".browserModified");
+        }
+        write(properties);
+    }
+
+    private static void write(Properties properties) {
+        try {
+            Files.createDirectories(CACHE_FILE.getParent());
+            Path temp = Files.createTempFile(CACHE_FILE.getParent(), "driver-binaries", ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                properties.store(out, "Resolved WebDriver binaries");
+            }
+            Files.move(temp, CACHE_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Logger.warn("Could not write driver binary cache " + CACHE_FILE + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Modification time of the browser binary, which changes when the browser is updated in place
+     */
+    private static String lastModified(String path) {
+        try {
+            return String.valueOf(Files.getLastModifiedTime(Paths.get(path)).toMillis());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static Properties load() {
+        if (entries == null) {
+            entries = new Properties();
+            if (Files.exists(CACHE_FILE)) {
+                try (InputStream in = Files.newInputStream(CACHE_FILE)) {
+                    entries.load(in);
+                } catch (IOException e) {
+                    Logger.warn("Could not read driver binary cache " + CACHE_FILE + ": " + e.getMessage());
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Resolved driver path and optional browser path
+     */
+    public static final class Binaries {
+        private final String driverPath;
+        private final String browserPath;
+        private final boolean cached;
+
+        Binaries(String driverPath, String browserPath, boolean cached) {
+            this.driverPath = driverPath;
+            this.browserPath = browserPath;
+            this.cached = cached;
+        }
+
+        public String getDriverPath() {
+            return driverPath;
+        }
+
+        /**
+         * Browser binary path, or null when the browser installed on the system is used
+         */
+        public String getBrowserPath() {
+            return browserPath;
+        }
+
+        /**
+         * Whether the paths came from the on-disk cache rather than a fresh Selenium Manager resolve
+         */
+        public boolean isCached() {
+            return cached;
+        }
+
+        boolean samePaths(Binaries other) {
+            return driverPath.equals(other.driverPath) && Objects.equals(browserPath, other.browserPath);
+        }
+    }
+}
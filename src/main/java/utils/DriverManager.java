@@ -1,9 +1,18 @@
 package utils;
 
+import java.time.Duration;
+
 import org.openqa.selenium.WebDriver;
 
 public final class DriverManager {
     private static final ThreadLocal<WebDriver> DRIVER_THREAD_LOCAL = new ThreadLocal<>();
+    private static final ThreadLocal<DriverPool.PooledDriver> POOLED_THREAD_LOCAL = new ThreadLocal<>();
+    private static final ThreadLocal<WebDriver> MULTIPLEXED_THREAD_LOCAL = new ThreadLocal<>();
+
+    private static volatile DriverPool pool;
+    private static volatile SessionMultiplexer multiplexer;
+    /** Set by shutdownPool; sessions returned afterwards are quit instead of starting a new pool */
+    private static volatile boolean poolShutDown;
 
     private DriverManager() { }
 
@@ -20,15 +29,139 @@ public final class DriverManager {
     }
 
     public static void quitDriver() {
+        if (MULTIPLEXED_THREAD_LOCAL.get() != null) {
+            releaseDriver();
+            return;
+        }
         WebDriver driver = DRIVER_THREAD_LOCAL.get();
         if (driver != null) {
+            DRIVER_THREAD_LOCAL.remove();
+            WebDriverFactory.quit(driver);
+        }
+    }
+
+    /**
+     * Bind a driver to this thread: an isolated context in a shared browser when multiplexing is enabled,
+     * otherwise a session borrowed from the pool (or created when pooling is disabled)
+     */
+    public static WebDriver acquireDriver() {
+        if (SessionMultiplexer.isEnabled()) {
+            WebDriver view = getMultiplexer().acquire(DriverProfile.fromConfig());
+            if (view != null) {
+                MULTIPLEXED_THREAD_LOCAL.set(view);
+                setDriver(view);
+                return view;
+            }
+        }
+        if (!isPoolEnabled()) {
+            WebDriver driver = WebDriverFactory.createDriver();
+            setDriver(driver);
+            return driver;
+        }
+        DriverPool.PooledDriver pooled = getPool().borrow(DriverProfile.fromConfig());
+        POOLED_THREAD_LOCAL.set(pooled);
+        setDriver(pooled.getDriver());
+        return pooled.getDriver();
+    }
+
+    /**
+     * Release this thread's driver - returned to the pool when pooled, otherwise quit
+     */
+    public static void releaseDriver() {
+        WebDriver view = MULTIPLEXED_THREAD_LOCAL.get();
+        if (view != null) {
             try {
-                driver.quit();
+                getMultiplexer().release(view);
             } finally {
+                MULTIPLEXED_THREAD_LOCAL.remove();
                 DRIVER_THREAD_LOCAL.remove();
             }
+            return;
+        }
+        if (SessionMultiplexer.isRecordingBaseline() && DRIVER_THREAD_LOCAL.get() != null) {
+            SessionMultiplexer.sampleDedicated(DRIVER_THREAD_LOCAL.get(), DriverProfile.fromConfig().getBrowser());
+        }
+        DriverPool.PooledDriver pooled = POOLED_THREAD_LOCAL.get();
+        if (pooled == null) {
+            quitDriver();
+            return;
+        }
+        try {
+            DriverPool current = pool;
+            if (current != null) {
+                current.release(pooled);
+            } else {
+                // Returned after shutdownPool - quit it rather than create a fresh pool
+                Logger.warn("WebDriver returned after the driver pool was shut down - quitting it");
+                WebDriverFactory.quit(pooled.getDriver());
+            }
+        } finally {
+            POOLED_THREAD_LOCAL.remove();
+            DRIVER_THREAD_LOCAL.remove();
         }
     }
-}
 
+    /**
+     * Quit all idle pooled sessions and multiplexed browsers, log pool metrics and stop shared driver services
+     */
+    public static synchronized void shutdownPool() {
+        poolShutDown = true;
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+        SessionMultiplexer.saveBaseline();
+        if (multiplexer != null) {
+            multiplexer.publish();
+            multiplexer.shutdown();
+            multiplexer = null;
+        }
+        WebDriverFactory.stopSharedServices();
+    }
+
+    public static boolean isPoolEnabled() {
+        return ConfigManager.getBoolean("driver.pool.enabled", true);
+    }
 
+    public static DriverPool getPool() {
+        DriverPool current = pool;
+        if (current == null) {
+            synchronized (DriverManager.class) {
+                current = pool;
+                if (current == null) {
+                    if (poolShutDown) {
+                        throw new IllegalStateException("Driver pool has been shut down");
+                    }
+                    current = createPool();
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public static SessionMultiplexer getMultiplexer() {
+        SessionMultiplexer current = multiplexer;
+        if (current == null) {
+            synchronized (DriverManager.class) {
+                current = multiplexer;
+                if (current == null) {
+                    current = new SessionMultiplexer(ConfigManager.getInt("driver.multiplex.contextsPerBrowser", 4));
+                    multiplexer = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static DriverPool createPool() {
+        int size = ConfigManager.getInt("driver.pool.size", ExecutionSizing.getThreadCount());
+        int maxUses = ConfigManager.getInt("driver.pool.maxUses", 25);
+        long maxIdleSeconds = ConfigManager.getLong("driver.pool.maxIdleSeconds", 300L);
+        long maxWaitSeconds = ConfigManager.getLong("driver.pool.maxWaitSeconds", 120L);
+        Logger.info("Creating driver pool - size: " + size + ", maxUses: " + maxUses
+                + ", maxIdle: " + maxIdleSeconds + "s, maxWait: " + maxWaitSeconds + "s");
+        return new DriverPool(size, maxUses, Duration.ofSeconds(maxIdleSeconds),
+                Duration.ofSeconds(maxWaitSeconds), WebDriverFactory::createDriver);
+    }
+}
@@ -0,0 +1,514 @@
+package utils;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.bidi.BiDi;
+import org.openqa.selenium.bidi.Command;
+import org.openqa.selenium.bidi.HasBiDi;
+import org.openqa.selenium.chromium.HasCdp;
+
+/**
+ * Bounded, thread-safe pool of reusable WebDriver sessions
+ * Sessions are keyed by browser profile, sampled (BrowserHealthMonitor) and reset on return and
+ * health-checked on checkout. A reset clears cookies, storage, IndexedDB, Cache Storage and service
+ * workers of every origin the session visited or holds cookies for - through CDP on Chromium, BiDi and
+ * an in-page script on Firefox; a session that cannot be reset completely is quit instead of reused
+ */
+public final class DriverPool {
+
+    private static final String BLANK_PAGE = "about:blank";
+
+    /** Clears the current origin's storage; resolves false when something could not be cleared */
+    private static final String CLEAR_ORIGIN_SCRIPT = """
+            var done = arguments[arguments.length - 1];
+            try { localStorage.clear(); sessionStorage.clear(); } catch (e) { done(false); return; }
+            if (!window.indexedDB || !indexedDB.databases) { done(false); return; }
+            var pending = [indexedDB.databases().then(function (databases) {
+              return Promise.all(databases.map(function (database) {
+                return new Promise(function (resolve, reject) {
+                  var request = indexedDB.deleteDatabase(database.name);
+                  request.onsuccess = resolve;
+                  request.onerror = request.onblocked = reject;
+                });
+              }));
+            })];
+            if (window.caches) {
+              pending.push(caches.keys().then(function (keys) {
+                return Promise.all(keys.map(function (key) { return caches.delete(key); }));
+              }));
+            }
+            if (navigator.serviceWorker) {
+              pending.push(navigator.serviceWorker.getRegistrations().then(function (registrations) {
+                return Promise.all(registrations.map(function (registration) { return registration.unregister(); }));
+              }));
+            }
+            Promise.all(pending).then(function () { done(true); }, function () { done(false); });
+            """;
+
+    /** Origins each session navigated to, so a reset can clear them */
+    private static final Map<WebDriver, Set<String>> VISITED_ORIGINS = new ConcurrentHashMap<>();
+
+    private final int maxSize;
+    private final int maxUses;
+    private final long maxIdleNanos;
+    private final Duration maxWait;
+    private final Function<DriverProfile, WebDriver> factory;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<PooledDriver> idle = new ArrayDeque<>();
+    private final Map<DriverProfile, Integer> warming = new HashMap<>();
+    private int total;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong waitNanosTotal = new AtomicLong();
+    private final AtomicLong waitNanosMax = new AtomicLong();
+    private final AtomicLong borrows = new AtomicLong();
+
+    public DriverPool(int maxSize, int maxUses, Duration maxIdle, Duration maxWait, Function<DriverProfile, WebDriver> factory) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Driver pool size must be at least 1, was " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.maxUses = maxUses;
+        this.maxIdleNanos = maxIdle.toNanos();
+        this.maxWait = maxWait;
+        this.factory = factory;
+    }
+
+    /**
+     * Borrow a session for the given browser profile, creating one if none is idle
+     */
+    public PooledDriver borrow(DriverProfile profile) {
+        long start = System.nanoTime();
+        long remaining = maxWait.toNanos();
+        PooledDriver candidate = null;
+        PooledDriver displaced = null;
+
+        lock.lock();
+        try {
+            while (true) {
+                candidate = takeIdle(profile);
+                if (candidate != null) {
+                    break;
+                }
+                if (warming.getOrDefault(profile, 0) > 0) {
+                    // A pre-warmed session for this profile is on its way - wait for it rather than launch another
+                    remaining = awaitOrTimeout(remaining);
+                    continue;
+                }
+                if (total < maxSize) {
+                    total++;
+                    break;
+                }
+                // Pool is full of sessions for another profile - recycle the oldest idle one
+                displaced = idle.pollLast();
+                if (displaced != null) {
+                    break;
+                }
+                remaining = awaitOrTimeout(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a pooled WebDriver", e);
+        } finally {
+            lock.unlock();
+        }
+        recordWait(System.nanoTime() - start);
+        borrows.incrementAndGet();
+
+        if (displaced != null) {
+            evictions.incrementAndGet();
+            WebDriverFactory.quit(displaced.getDriver());
+        }
+        if (candidate != null) {
+            if (isReusable(candidate)) {
+                hits.incrementAndGet();
+                candidate.markBorrowed();
+                return candidate;
+            }
+            evictions.incrementAndGet();
+            WebDriverFactory.quit(candidate.getDriver());
+        }
+        misses.incrementAndGet();
+        return createEntry(profile);
+    }
+
+    /**
+     * Launch up to {@code count} sessions concurrently on the executor and park them as idle
+     * Slots are reserved immediately so borrowers wait for warm sessions instead of launching their own
+     */
+    public List<CompletableFuture<DriverStartupTimings>> prewarm(DriverProfile profile, int count, Executor executor) {
+        int reserved;
+        lock.lock();
+        try {
+            reserved = Math.min(count, maxSize - total);
+            total += reserved;
+            warming.merge(profile, reserved, Integer::sum);
+        } finally {
+            lock.unlock();
+        }
+
+        List<CompletableFuture<DriverStartupTimings>> futures = new ArrayList<>(reserved);
+        for (int i = 0; i < reserved; i++) {
+            futures.add(CompletableFuture.supplyAsync(() -> warmOne(profile), executor));
+        }
+        return futures;
+    }
+
+    private DriverStartupTimings warmOne(DriverProfile profile) {
+        WebDriver driver = null;
+        try {
+            driver = factory.apply(profile);
+            return WebDriverFactory.getLastStartupTimings();
+        } finally {
+            lock.lock();
+            try {
+                warming.merge(profile, -1, Integer::sum);
+                if (driver != null) {
+                    idle.addLast(new PooledDriver(driver, profile));
+                } else {
+                    total--;
+                }
+                available.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Return a session to the pool, resetting its state, or discard it when it can no longer be reused
+     */
+    public void release(PooledDriver pooled) {
+        if (pooled == null) {
+            return;
+        }
+        if (pooled.getUses() >= maxUses || !BrowserHealthMonitor.isFitForReuse(pooled.getDriver())
+                || !reset(pooled.getDriver())) {
+            evictions.incrementAndGet();
+            discard(pooled);
+            return;
+        }
+        pooled.markReturned();
+        lock.lock();
+        try {
+            idle.addFirst(pooled);
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Quit a session without returning it to the pool
+     */
+    public void discard(PooledDriver pooled) {
+        WebDriverFactory.quit(pooled.getDriver());
+        lock.lock();
+        try {
+            total--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Quit every idle session; borrowed sessions are quit when they are released
+     */
+    public void shutdown() {
+        List<PooledDriver> drained;
+        lock.lock();
+        try {
+            drained = List.copyOf(idle);
+            idle.clear();
+            total -= drained.size();
+        } finally {
+            lock.unlock();
+        }
+        drained.forEach(entry -> WebDriverFactory.quit(entry.getDriver()));
+        Logger.info("Driver pool shut down - " + metricsSummary());
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getTotal() {
+        lock.lock();
+        try {
+            return total;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getIdleCount() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getMaxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(waitNanosMax.get());
+    }
+
+    public double getAverageWaitMillis() {
+        long count = borrows.get();
+        return count == 0L ? 0.0 : waitNanosTotal.get() / (count * 1_000_000.0);
+    }
+
+    /**
+     * One-line summary of pool sizing and hit/miss metrics
+     */
+    public String metricsSummary() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long lookups = hitCount + missCount;
+        double hitRate = lookups == 0L ? 0.0 : (hitCount * 100.0) / lookups;
+        return String.format("size=%d/%d idle=%d hits=%d misses=%d hitRate=%.1f%% evictions=%d avgWait=%.1fms maxWait=%dms",
+                getTotal(), maxSize, getIdleCount(), hitCount, missCount, hitRate, evictions.get(),
+                getAverageWaitMillis(), getMaxWaitMillis());
+    }
+
+    private long awaitOrTimeout(long remaining) throws InterruptedException {
+        if (remaining <= 0L) {
+            throw new IllegalStateException("Timed out after " + maxWait.toMillis()
+                    + " ms waiting for a pooled WebDriver (pool size " + maxSize + ")");
+        }
+        return available.awaitNanos(remaining);
+    }
+
+    private PooledDriver takeIdle(DriverProfile profile) {
+        Iterator<PooledDriver> iterator = idle.iterator();
+        while (iterator.hasNext()) {
+            PooledDriver entry = iterator.next();
+            if (entry.getProfile().equals(profile)) {
+                iterator.remove();
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private PooledDriver createEntry(DriverProfile profile) {
+        try {
+            PooledDriver entry = new PooledDriver(factory.apply(profile), profile);
+            entry.markBorrowed();
+            return entry;
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                total--;
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+    }
+
+    private boolean isReusable(PooledDriver entry) {
+        if (entry.getUses() >= maxUses) {
+            return false;
+        }
+        if (maxIdleNanos > 0L && entry.getIdleNanos() > maxIdleNanos) {
+            return false;
+        }
+        return isHealthy(entry.getDriver());
+    }
+
+    private static boolean isHealthy(WebDriver driver) {
+        try {
+            driver.getWindowHandle();
+            return true;
+        } catch (Exception e) {
+            Logger.warn("Pooled WebDriver failed health check: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Note a navigation so the origin's storage is cleared when the session is reset
+     */
+    public static void recordNavigation(WebDriver driver, String url) {
+        String origin = BrowserStateCache.origin(url);
+        if (origin.startsWith("http")) {
+            VISITED_ORIGINS.computeIfAbsent(driver, ignored -> ConcurrentHashMap.newKeySet()).add(origin);
+        }
+    }
+
+    /**
+     * Forget the visited origins of a session that is about to quit
+     */
+    static void forget(WebDriver driver) {
+        VISITED_ORIGINS.remove(driver);
+    }
+
+    /**
+     * Restore a session to a clean state: single window, no cookies or storage on any origin, blank page
+     * @return false when the session could not be reset completely and must not be reused
+     */
+    private static boolean reset(WebDriver driver) {
+        try {
+            Set<String> handles = driver.getWindowHandles();
+            String primary = handles.iterator().next();
+            for (String handle : handles) {
+                if (!handle.equals(primary)) {
+                    driver.switchTo().window(handle).close();
+                }
+            }
+            driver.switchTo().window(primary);
+
+            Set<String> origins = new LinkedHashSet<>(VISITED_ORIGINS.getOrDefault(driver, Set.of()));
+            String current = BrowserStateCache.origin(driver.getCurrentUrl());
+            if (current.startsWith("http")) {
+                origins.add(current);
+            }
+            boolean clean;
+            if (driver instanceof HasCdp) {
+                clean = clearWithCdp((HasCdp) driver, origins);
+            } else if (driver instanceof HasBiDi && ((HasBiDi) driver).maybeGetBiDi().isPresent()) {
+                clean = clearWithBiDi(driver, origins);
+            } else {
+                // WebDriver alone only reaches the current origin's cookies and storage
+                clean = false;
+            }
+            if (!clean) {
+                Logger.warn("Pooled WebDriver could not be reset completely, discarding it");
+                return false;
+            }
+            driver.navigate().to(BLANK_PAGE);
+            VISITED_ORIGINS.remove(driver);
+            BrowserStateCache.sessionReset(driver);
+            return true;
+        } catch (Exception e) {
+            Logger.warn("Failed to reset pooled WebDriver, discarding it: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Clear every origin that was visited or holds cookies, then every cookie of the browser
+     */
+    private static boolean clearWithCdp(HasCdp cdp, Set<String> origins) {
+        for (Object raw : cdpCookies(cdp)) {
+            String domain = String.valueOf(((Map<?, ?>) raw).get("domain"));
+            String host = domain.startsWith(".") ? domain.substring(1) : domain;
+            origins.add("https://" + host);
+            origins.add("http://" + host);
+        }
+        for (String origin : origins) {
+            // "all" covers cookies, local storage, IndexedDB, Cache Storage and service workers
+            cdp.executeCdpCommand("Storage.clearDataForOrigin", Map.of("origin", origin, "storageTypes", "all"));
+            // sessionStorage belongs to the tab, which is kept
+            cdp.executeCdpCommand("DOMStorage.clear",
+                    Map.of("storageId", Map.of("securityOrigin", origin, "isLocalStorage", false)));
+        }
+        cdp.executeCdpCommand("Storage.clearCookies", Map.of());
+        return cdpCookies(cdp).isEmpty();
+    }
+
+    private static List<?> cdpCookies(HasCdp cdp) {
+        return (List<?>) cdp.executeCdpCommand("Storage.getCookies", Map.of()).get("cookies");
+    }
+
+    /**
+     * Delete every cookie through BiDi and clear each visited origin's storage from a page on that origin
+     */
+    private static boolean clearWithBiDi(WebDriver driver, Set<String> origins) {
+        BiDi bidi = ((HasBiDi) driver).getBiDi();
+        bidi.send(new Command<>("storage.deleteCookies", Map.of(), Map.class));
+        for (String origin : origins) {
+            driver.navigate().to(origin + ConfigManager.get("browserState.primePath", "/favicon.ico"));
+            if (!Boolean.TRUE.equals(((JavascriptExecutor) driver).executeAsyncScript(CLEAR_ORIGIN_SCRIPT))) {
+                return false;
+            }
+        }
+        Map<?, ?> remaining = bidi.send(new Command<Map<?, ?>>("storage.getCookies", Map.of(),
+                input -> input.read(Map.class)));
+        return ((List<?>) remaining.get("cookies")).isEmpty();
+    }
+
+    private void recordWait(long nanos) {
+        waitNanosTotal.addAndGet(nanos);
+        waitNanosMax.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * A pooled session with its usage bookkeeping
+     */
+    public static final class PooledDriver {
+        private final WebDriver driver;
+        private final DriverProfile profile;
+        private int uses;
+        private long lastReturnedNanos;
+
+        PooledDriver(WebDriver driver, DriverProfile profile) {
+            this.driver = driver;
+            this.profile = profile;
+            this.lastReturnedNanos = System.nanoTime();
+        }
+
+        public WebDriver getDriver() {
+            return driver;
+        }
+
+        public DriverProfile getProfile() {
+            return profile;
+        }
+
+        public int getUses() {
+            return uses;
+        }
+
+        long getIdleNanos() {
+            return System.nanoTime() - lastReturnedNanos;
+        }
+
+        void markBorrowed() {
+            uses++;
+        }
+
+        void markReturned() {
+            lastReturnedNanos = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package utils;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import org.openqa.selenium.PageLoadStrategy;
+
+/**
+ * Browser, headless, page load strategy and network shaping a WebDriver session was launched with
+ * Used to key pooled sessions so a test never receives a session for a different browser or network profile
+ */
+public final class DriverProfile {
+
+    private final String browser;
+    private final boolean headless;
+    private final PageLoadStrategy pageLoadStrategy;
+    private final Map<String, String> network;
+
+    /**
+     * Profile with the network shaping configured for the current thread
+     */
+    public DriverProfile(String browser, boolean headless, PageLoadStrategy pageLoadStrategy) {
+        this(browser, headless, pageLoadStrategy, NetworkShaper.sessionConfig(ConfigManager.snapshot()));
+    }
+
+    public DriverProfile(String browser, boolean headless, PageLoadStrategy pageLoadStrategy,
+            Map<String, String> network) {
+        this.browser = browser.toLowerCase();
+        this.headless = headless;
+        this.pageLoadStrategy = pageLoadStrategy;
+        this.network = Collections.unmodifiableMap(new TreeMap<>(network));
+    }
+
+    /**
+     * Profile resolved from the current configuration
+     */
+    public static DriverProfile fromConfig() {
+        return new DriverProfile(ConfigManager.get("browser", "chrome"),
+                ConfigManager.getBoolean("headless", false),
+                ConfigManager.snapshot().getEnum("page.loadStrategy", PageLoadStrategy.class, PageLoadStrategy.EAGER));
+    }
+
+    public String getBrowser() {
+        return browser;
+    }
+
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    public PageLoadStrategy getPageLoadStrategy() {
+        return pageLoadStrategy;
+    }
+
+    /**
+     * Session-shaping configuration (network.* blocking and throttling entries), empty when none is active
+     */
+    public Map<String, String> getNetworkConfig() {
+        return network;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof DriverProfile)) {
+            return false;
+        }
+        DriverProfile that = (DriverProfile) other;
+        return headless == that.headless && browser.equals(that.browser)
+                && pageLoadStrategy == that.pageLoadStrategy && network.equals(that.network);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(browser, headless, pageLoadStrategy, network);
+    }
+
+    @Override
+    public String toString() {
+        return browser + (headless ? ":headless" : "")
+                + (pageLoadStrategy != PageLoadStrategy.NORMAL ? ":" + pageLoadStrategy : "")
+                + (network.isEmpty() ? "" : ":" + network);
+    }
+}
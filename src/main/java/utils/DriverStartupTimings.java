@@ -0,0 +1,46 @@
+package utils;
+
+/**
+ * Wall-clock cost of each WebDriver startup phase
+ * Binary resolution (Selenium Manager), driver service spawn and new-session handshake
+ */
+public final class DriverStartupTimings {
+
+    private final String browser;
+    private final long resolveMillis;
+    private final long spawnMillis;
+    private final long handshakeMillis;
+
+    public DriverStartupTimings(String browser, long resolveMillis, long spawnMillis, long handshakeMillis) {
+        this.browser = browser;
+        this.resolveMillis = resolveMillis;
+        this.spawnMillis = spawnMillis;
+        this.handshakeMillis = handshakeMillis;
+    }
+
+    public String getBrowser() {
+        return browser;
+    }
+
+    public long getResolveMillis() {
+        return resolveMillis;
+    }
+
+    public long getSpawnMillis() {
+        return spawnMillis;
+    }
+
+    public long getHandshakeMillis() {
+        return handshakeMillis;
+    }
+
+    public long getTotalMillis() {
+        return resolveMillis + spawnMillis + handshakeMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s startup %dms (resolve %dms, spawn %dms, handshake %dms)",
+                browser, getTotalMillis(), resolveMillis, spawnMillis, handshakeMillis);
+    }
+}
@@ -0,0 +1,105 @@
+package utils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+/**
+ * Suite listener that pre-warms pooled WebDriver sessions in parallel
+ * Opt-in via driver.warmup.enabled; sessions launch while TestNG is still preparing the suite
+ * and borrowers wait for them instead of starting cold browsers of their own
+ */
+public class DriverWarmupListener implements ISuiteListener {
+
+    private ExecutorService executor;
+
+    @Override
+    public void onStart(ISuite suite) {
+        if (!ConfigManager.getBoolean("driver.warmup.enabled", false)) {
+            return;
+        }
+        if (!DriverManager.isPoolEnabled()) {
+            Logger.warn("Driver warm-up requested but driver.pool.enabled is false - skipping warm-up");
+            return;
+        }
+        if (SessionMultiplexer.isEnabled()) {
+            Logger.warn("Driver warm-up requested but tests share multiplexed browsers - skipping warm-up");
+            return;
+        }
+
+        DriverProfile profile = resolveProfile(suite);
+        DriverPool pool = DriverManager.getPool();
+        int count = ConfigManager.getInt("driver.warmup.count", pool.getMaxSize());
+        executor = Executors.newFixedThreadPool(Math.max(1, count), daemonThreads());
+
+        long start = System.nanoTime();
+        List<CompletableFuture<DriverStartupTimings>> futures = pool.prewarm(profile, count, executor);
+        Logger.info("Warming up " + futures.size() + " " + profile + " session(s)");
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .whenComplete((ignored, error) -> report(futures, System.nanoTime() - start));
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Browser/headless from suite parameters, falling back to configuration like BaseTest does
+     */
+    private static DriverProfile resolveProfile(ISuite suite) {
+        String browser = suite.getParameter("browser");
+        String headless = suite.getParameter("headless");
+        DriverProfile configured = DriverProfile.fromConfig();
+        return new DriverProfile(browser != null ? browser : configured.getBrowser(),
+                headless != null ? Boolean.parseBoolean(headless) : configured.isHeadless(),
+                configured.getPageLoadStrategy());
+    }
+
+    private static void report(List<CompletableFuture<DriverStartupTimings>> futures, long elapsedNanos) {
+        int ready = 0;
+        long resolve = 0L;
+        long spawn = 0L;
+        long handshake = 0L;
+        for (CompletableFuture<DriverStartupTimings> future : futures) {
+            DriverStartupTimings timings;
+            try {
+                timings = future.join();
+            } catch (CompletionException e) {
+                Logger.error("Driver warm-up failed", e.getCause());
+                continue;
+            }
+            ready++;
+            if (timings != null) {
+                resolve += timings.getResolveMillis();
+                spawn += timings.getSpawnMillis();
+                handshake += timings.getHandshakeMillis();
+            }
+        }
+
+        long divisor = Math.max(1, ready);
+        String summary = String.format("%d/%d sessions in %dms (avg resolve %dms, spawn %dms, handshake %dms)",
+                ready, futures.size(), elapsedNanos / 1_000_000L, resolve / divisor, spawn / divisor, handshake / divisor);
+        Logger.info("Driver warm-up completed - " + summary);
+        ExtentManager.setSystemInfo("Driver Warm-up", summary);
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "driver-warmup-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,191 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Finds and clicks dropdown options inside the browser in one async script
+ * Handles native select options, multi-select and virtualized/lazily rendered lists by scrolling
+ * the options container until every requested value has been found or the list is exhausted
+ */
+public final class DropdownSelector {
+
+    private static final String SELECT_SCRIPT = """
+            var strategy = arguments[0], value = arguments[1], wanted = arguments[2], mode = arguments[3];
+            var maxScrolls = arguments[4], waitMs = arguments[5];
+            var done = arguments[arguments.length - 1];
+            var deadline = Date.now() + waitMs, scrolls = 0, available = [], selected = [];
+            var pending = wanted.slice();
+            function normalize(text) {
+              // Trimmed in every mode, like WebElement.getText()
+              text = (text || '').trim();
+              if (mode === 'EXACT') { return text; }
+              if (mode === 'NORMALIZED') { text = text.replace(/\\s+/g, ' '); }
+              return text.toLowerCase();
+            }
+            function options() {
+              if (strategy === 'xpath') {
+                var snapshot = document.evaluate(value, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);
+                var list = [];
+                for (var i = 0; i < snapshot.snapshotLength; i++) { list.push(snapshot.snapshotItem(i)); }
+                return list;
+              }
+              return Array.prototype.slice.call(document.querySelectorAll(value));
+            }
+            function textOf(el) {
+              return el.tagName === 'OPTION' ? el.text : (el.innerText || el.textContent || '');
+            }
+            function choose(el) {
+              if (el.tagName === 'OPTION') {
+                el.selected = true;
+                var select = el.closest('select');
+                if (select) { select.dispatchEvent(new Event('change', { bubbles: true })); }
+              } else {
+                el.scrollIntoView({ block: 'nearest' });
+                el.click();
+              }
+            }
+            function scrollContainer(el) {
+              for (var node = el.parentElement; node; node = node.parentElement) {
+                if (node.scrollHeight > node.clientHeight + 1) {
+                  var overflow = getComputedStyle(node).overflowY;
+                  if (overflow === 'auto' || overflow === 'scroll') { return node; }
+                }
+              }
+              return null;
+            }
+            function step() {
+              var list = options();
+              list.forEach(function (el) {
+                var text = textOf(el).trim();
+                if (available.indexOf(text) < 0) { available.push(text); }
+              });
+              pending = pending.filter(function (target) {
+                var key = normalize(target);
+                for (var i = 0; i < list.length; i++) {
+                  if (normalize(textOf(list[i])) === key) {
+                    choose(list[i]);
+                    selected.push(textOf(list[i]).trim());
+                    return false;
+                  }
+                }
+                return true;
+              });
+              if (pending.length === 0) { done({ ok: true, selected: selected }); return; }
+              if (list.length === 0) {
+                if (Date.now() < deadline) { setTimeout(step, 50); return; }
+                done({ ok: false, missing: pending, available: available });
+                return;
+              }
+              var container = scrollContainer(list[list.length - 1]);
+              if (!container || scrolls >= maxScrolls
+                  || container.scrollTop + container.clientHeight >= container.scrollHeight - 1) {
+                done({ ok: false, missing: pending, available: available });
+                return;
+              }
+              scrolls++;
+              container.scrollTop += container.clientHeight;
+              // Give virtualized lists a frame to render the next window of options. Background windows
+              // (multiplexed sessions) never run animation frames, so a timer continues the scan as well
+              var continued = false;
+              var next = function () { if (!continued) { continued = true; step(); } };
+              requestAnimationFrame(function () { setTimeout(next, 16); });
+              setTimeout(next, 100);
+            }
+            step();
+            """;
+
+    private DropdownSelector() { }
+
+    /**
+     * Select each value from the options matched by the locator, failing fast when any is missing
+     * @return the option texts that were selected
+     */
+    public static List<String> select(WebDriver driver, By optionsLocator, MatchMode mode, List<String> values) {
+        String[] selector = BrowserLocator.toSelector(optionsLocator);
+        if (selector == null) {
+            return selectDirectly(driver, optionsLocator, mode, values);
+        }
+
+        int maxScrolls = ConfigManager.getInt("dropdown.maxScrolls", 50);
+        long waitMillis = ConfigManager.getLong("dropdown.optionsWaitMs", TimeoutConfig.VERY_SHORT_TIMEOUT * 1000L);
+        Object raw = ((JavascriptExecutor) driver).executeAsyncScript(SELECT_SCRIPT,
+                selector[0], selector[1], values, mode.name(), maxScrolls, waitMillis);
+        Map<?, ?> result = raw instanceof Map ? (Map<?, ?>) raw : Map.of();
+        if (!Boolean.TRUE.equals(result.get("ok"))) {
+            throw notFound(optionsLocator, result.get("missing"), result.get("available"));
+        }
+        List<String> selected = new ArrayList<>();
+        ((List<?>) result.get("selected")).forEach(text -> selected.add(String.valueOf(text)));
+        return selected;
+    }
+
+    /**
+     * Per-element fallback for locators the page cannot evaluate
+     */
+    private static List<String> selectDirectly(WebDriver driver, By optionsLocator, MatchMode mode, List<String> values) {
+        List<WebElement> elements = driver.findElements(optionsLocator);
+        List<String> texts = new ArrayList<>(elements.size());
+        for (WebElement element : elements) {
+            texts.add(element.getText());
+        }
+
+        List<String> selected = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (String value : values) {
+            int index = indexOf(texts, value, mode);
+            if (index < 0) {
+                missing.add(value);
+                continue;
+            }
+            WebElement element = elements.get(index);
+            try {
+                element.click();
+            } catch (Exception e) {
+                // Fallback to JavaScript click
+                ((JavascriptExecutor) driver).executeScript("arguments[0].click();", element);
+            }
+            selected.add(texts.get(index));
+        }
+        if (!missing.isEmpty()) {
+            throw notFound(optionsLocator, missing, texts);
+        }
+        return selected;
+    }
+
+    private static int indexOf(List<String> texts, String value, MatchMode mode) {
+        String key = normalize(value, mode);
+        for (int i = 0; i < texts.size(); i++) {
+            if (normalize(texts.get(i), mode).equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String normalize(String text, MatchMode mode) {
+        String value = text == null ? "" : text.trim();
+        switch (mode) {
+            case EXACT:
+                return value;
+            case NORMALIZED:
+                return value.replaceAll("\\s+", " ").trim().toLowerCase(Locale.ROOT);
+            case IGNORE_CASE:
+            default:
+                return value.toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static NoSuchElementException notFound(By optionsLocator, Object missing, Object available) {
+        return new NoSuchElementException("Dropdown option(s) " + missing + " not found for " + optionsLocator
+                + ". Available options: " + available);
+    }
+}
@@ -0,0 +1,244 @@
+package utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Properties;
+
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ISuiteResult;
+import org.testng.ITestContext;
+import org.testng.ITestResult;
+import org.testng.xml.XmlSuite;
+
+/**
+ * Runs test methods longest-first (schedule.enabled) using durations recorded by earlier runs
+ * Durations are kept per method in schedule.historyFile, smoothed over runs (schedule.smoothing), and
+ * updated when the suite finishes. Methods without history are estimated at the median of the known
+ * ones (schedule.defaultMs when nothing is known yet). The predicted makespan of the chosen order on the
+ * suite's threads is reported next to the measured one
+ */
+public class DurationScheduler implements IMethodInterceptor, ISuiteListener {
+
+    private final Map<String, Long> history = new HashMap<>();
+    private long predictedMillis;
+    private long defaultOrderMillis;
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (!isSchedulingEnabled() || methods.size() < 2) {
+            return methods;
+        }
+        return schedule(methods, browser(context), threads(context.getSuite().getXmlSuite()), context.getName());
+    }
+
+    /**
+     * Order methods longest-first by their recorded durations on the browser and add the predicted makespans
+     * on the given number of threads to the suite totals
+     */
+    List<IMethodInstance> schedule(List<IMethodInstance> methods, String browser, int threads, String testName) {
+        synchronized (history) {
+            if (history.isEmpty()) {
+                history.putAll(load(historyFile()));
+            }
+        }
+        long fallback = defaultEstimate(methods, browser);
+        Map<IMethodInstance, Long> estimates = new HashMap<>();
+        for (IMethodInstance method : methods) {
+            estimates.put(method, history.getOrDefault(key(method.getMethod().getQualifiedName(), browser), fallback));
+        }
+
+        List<IMethodInstance> ordered = new ArrayList<>(methods);
+        // Stable sort: methods with equal estimates keep TestNG's order
+        ordered.sort(Comparator.comparing(estimates::get, Comparator.reverseOrder()));
+
+        long predicted = makespan(ordered, estimates, threads);
+        synchronized (this) {
+            predictedMillis += predicted;
+            defaultOrderMillis += makespan(methods, estimates, threads);
+        }
+        Logger.info("Scheduled " + ordered.size() + " methods of '" + testName + "' longest-first on "
+                + threads + " thread(s), predicted makespan " + predicted + "ms");
+        return ordered;
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (!isSchedulingEnabled()) {
+            return;
+        }
+        Map<String, Long> measured = new HashMap<>();
+        long firstStart = Long.MAX_VALUE;
+        long lastEnd = Long.MIN_VALUE;
+        for (ISuiteResult suiteResult : suite.getResults().values()) {
+            ITestContext context = suiteResult.getTestContext();
+            String browser = browser(context);
+            // Skipped methods did not run their body; their time says nothing about the next run
+            for (ITestResult result : concat(context.getPassedTests().getAllResults(),
+                    context.getFailedTests().getAllResults())) {
+                measured.merge(key(result.getMethod().getQualifiedName(), browser),
+                        result.getEndMillis() - result.getStartMillis(), Long::sum);
+                firstStart = Math.min(firstStart, result.getStartMillis());
+                lastEnd = Math.max(lastEnd, result.getEndMillis());
+            }
+        }
+        if (measured.isEmpty()) {
+            return;
+        }
+        save(historyFile(), measured);
+
+        long actualMillis = lastEnd - firstStart;
+        String summary = String.format("longest-first on %d thread(s), predicted makespan %dms (default order %dms), "
+                + "actual makespan %dms", threads(suite.getXmlSuite()), predictedMillis, defaultOrderMillis,
+                actualMillis);
+        Logger.info("Test scheduling - " + summary);
+        ExtentManager.setSystemInfo("Test Scheduling", summary);
+        // @AfterSuite has already flushed the report; flush again so the summary is included
+        ExtentManager.flushExtentReports();
+    }
+
+    /**
+     * Predicted makespan of the longest-first orders scheduled so far
+     */
+    synchronized long getPredictedMillis() {
+        return predictedMillis;
+    }
+
+    /**
+     * Predicted makespan of the same methods in TestNG's order
+     */
+    synchronized long getDefaultOrderMillis() {
+        return defaultOrderMillis;
+    }
+
+    private static boolean isSchedulingEnabled() {
+        return ConfigManager.getBoolean("schedule.enabled", true);
+    }
+
+    private static Path historyFile() {
+        return Paths.get(ConfigManager.get("schedule.historyFile", "test-output/history/test-durations.properties"));
+    }
+
+    /**
+     * Median of the recorded durations of these methods, or schedule.defaultMs when none has history
+     */
+    private long defaultEstimate(List<IMethodInstance> methods, String browser) {
+        List<Long> known = new ArrayList<>();
+        for (IMethodInstance method : methods) {
+            Long recorded = history.get(key(method.getMethod().getQualifiedName(), browser));
+            if (recorded != null) {
+                known.add(recorded);
+            }
+        }
+        if (known.isEmpty()) {
+            return ConfigManager.getLong("schedule.defaultMs", 30000L);
+        }
+        known.sort(null);
+        return known.get(known.size() / 2);
+    }
+
+    private static int threads(XmlSuite suite) {
+        return suite.getParallel() == XmlSuite.ParallelMode.NONE ? 1 : Math.max(1, suite.getThreadCount());
+    }
+
+    /**
+     * Finish time of the last method when each method starts on the first free thread, in list order
+     */
+    private static long makespan(List<IMethodInstance> order, Map<IMethodInstance, Long> estimates, int threads) {
+        PriorityQueue<Long> finishTimes = new PriorityQueue<>();
+        for (int i = 0; i < threads; i++) {
+            finishTimes.add(0L);
+        }
+        long makespan = 0L;
+        for (IMethodInstance method : order) {
+            long finish = finishTimes.poll() + estimates.get(method);
+            finishTimes.add(finish);
+            makespan = Math.max(makespan, finish);
+        }
+        return makespan;
+    }
+
+    /**
+     * Blend this run's durations into the recorded ones and write the file atomically
+     */
+    private static void save(Path file, Map<String, Long> measured) {
+        double smoothing = Math.min(1.0, Math.max(0.0, ConfigManager.snapshot().getDouble("schedule.smoothing", 0.5)));
+        Map<String, Long> updated = load(file);
+        for (Map.Entry<String, Long> entry : measured.entrySet()) {
+            Long previous = updated.get(entry.getKey());
+            updated.put(entry.getKey(), previous == null ? entry.getValue()
+                    : Math.round(smoothing * entry.getValue() + (1.0 - smoothing) * previous));
+        }
+        Properties properties = new Properties();
+        updated.forEach((key, millis) -> properties.setProperty(key, Long.toString(millis)));
+        try {
+            if (file.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+            }
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                properties.store(out, "Test method durations in ms, used to schedule longest-first");
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Logger.warn("Unable to write test duration history " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static Map<String, Long> load(Path file) {
+        Map<String, Long> durations = new HashMap<>();
+        if (!Files.isRegularFile(file)) {
+            return durations;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            Logger.warn("Unable to read test duration history " + file + ": " + e.getMessage());
+            return durations;
+        }
+        for (String key : properties.stringPropertyNames()) {
+            try {
+                durations.put(key, Long.parseLong(properties.getProperty(key).trim()));
+            } catch (NumberFormatException e) {
+                Logger.warn("Ignoring invalid duration for " + key + " in " + file);
+            }
+        }
+        return durations;
+    }
+
+    /**
+     * History key of a method; the browser is part of it since the same test runs at different speeds
+     */
+    private static String key(String qualifiedName, String browser) {
+        return qualifiedName + "." + browser;
+    }
+
+    /**
+     * Browser from the test's parameters, falling back to configuration like BaseTest does
+     */
+    private static String browser(ITestContext context) {
+        String browser = context.getCurrentXmlTest().getParameter("browser");
+        return browser != null ? browser : DriverProfile.fromConfig().getBrowser();
+    }
+
+    private static List<ITestResult> concat(Iterable<ITestResult> first, Iterable<ITestResult> second) {
+        List<ITestResult> all = new ArrayList<>();
+        first.forEach(all::add);
+        second.forEach(all::add);
+        return all;
+    }
+}
@@ -0,0 +1,60 @@
+package utils;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Snapshot of one element from a batched read
+ * Missing elements report present=false; hidden elements report displayed=false with empty text
+ */
+public final class ElementReadResult {
+
+    private static final ElementReadResult MISSING = new ElementReadResult(false, false, null, Map.of());
+
+    private final boolean present;
+    private final boolean displayed;
+    private final String text;
+    private final Map<String, String> attributes;
+
+    ElementReadResult(boolean present, boolean displayed, String text, Map<String, String> attributes) {
+        this.present = present;
+        this.displayed = displayed;
+        this.text = text;
+        this.attributes = Collections.unmodifiableMap(attributes);
+    }
+
+    static ElementReadResult missing() {
+        return MISSING;
+    }
+
+    public boolean isPresent() {
+        return present;
+    }
+
+    public boolean isDisplayed() {
+        return displayed;
+    }
+
+    /**
+     * Visible text, matching WebElement.getText(); empty for hidden elements, null if missing
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Attribute/property value as WebElement.getAttribute would return it, or null
+     */
+    public String getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    public Map<String, String> getAttributes() {
+        return attributes;
+    }
+
+    @Override
+    public String toString() {
+        return present ? "[displayed=" + displayed + ", text=" + text + ", attributes=" + attributes + "]" : "[missing]";
+    }
+}
@@ -1,13 +1,14 @@
 package utils;
 
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.openqa.selenium.TimeoutException;
 
 /**
@@ -24,27 +25,66 @@ public class ElementUtil {
      * Navigate to URL
      */
     public void navigate(String URL) {
-    	getDriver().navigate().to(URL);
+        long start = OperationMetrics.start();
+        try {
+            getDriver().navigate().to(URL);
+        } finally {
+            OperationMetrics.record("navigate", start);
+        }
     }
     
     /**
      * Wait for page to load completely
      */
     public void waitForPageLoad() {
-        WebDriverWait wait = new WebDriverWait(getDriver(), Duration.ofSeconds(TimeoutConfig.PAGE_LOAD_TIMEOUT));
-        wait.until(ExpectedConditions.jsReturnsValue("return document.readyState == 'complete'"));
+        long start = OperationMetrics.start();
+        try {
+            WaitEngine.current().scriptReturnsTrue(getDriver(), "return document.readyState == 'complete'",
+                    TimeoutConfig.PAGE_LOAD_TIMEOUT);
+        } catch (TimeoutException e) {
+            OperationMetrics.increment("waitForPageLoad.timeout");
+            throw e;
+        } finally {
+            OperationMetrics.record("waitForPageLoad", start);
+        }
+    }
+
+    /**
+     * Wait until every readiness condition holds, checking all of them in one script call per poll
+     */
+    public void waitForReadiness(List<ReadinessCondition> conditions) {
+        if (conditions.isEmpty()) {
+            return;
+        }
+        String script = ReadinessCondition.script(conditions);
+        long start = OperationMetrics.start();
+        try {
+            WaitEngine.current().until(getDriver(), driver -> {
+                Object result = ((org.openqa.selenium.JavascriptExecutor) driver).executeScript(script);
+                return result instanceof List && !((List<?>) result).contains(Boolean.FALSE);
+            }, TimeoutConfig.PAGE_LOAD_TIMEOUT, "page readiness: " + conditions);
+        } catch (TimeoutException e) {
+            OperationMetrics.increment("waitForReadiness.timeout");
+            throw e;
+        } finally {
+            OperationMetrics.record("waitForReadiness", start);
+        }
     }
 
     /**
      * Click element with fallback to JavaScript click
      */
     public void click(By locator) {
+        long start = OperationMetrics.start();
         try {
             waitForElementClickable(locator, TimeoutConfig.ELEMENT_CLICKABLE_TIMEOUT).click();
         } catch (Exception e) {
             // Fallback to JavaScript click if regular click fails
+            OperationMetrics.increment("click.jsFallback");
             WebElement element = waitForElementVisible(locator, TimeoutConfig.ELEMENT_VISIBILITY_TIMEOUT);
             ((org.openqa.selenium.JavascriptExecutor) getDriver()).executeScript("arguments[0].click();", element);
+        } finally {
+            OperationMetrics.record("click", locator, start);
         }
     }
 
@@ -52,94 +92,169 @@ public class ElementUtil {
      * Send keys to element
      */
     public void sendKeys(By locator, String text) {
-        WebElement element = waitForElementVisible(locator, TimeoutConfig.ELEMENT_VISIBILITY_TIMEOUT);
-        element.clear();
-        element.sendKeys(text);
+        long start = OperationMetrics.start();
+        try {
+            WebElement element = waitForElementVisible(locator, TimeoutConfig.ELEMENT_VISIBILITY_TIMEOUT);
+            element.clear();
+            element.sendKeys(text);
+        } finally {
+            OperationMetrics.record("sendKeys", locator, start);
+        }
     }
 
     /**
      * Get text from element
      */
     public String getText(By locator) {
-        return waitForElementVisible(locator, TimeoutConfig.ELEMENT_VISIBILITY_TIMEOUT).getText();
+        long start = OperationMetrics.start();
+        try {
+            return waitForElementVisible(locator, TimeoutConfig.ELEMENT_VISIBILITY_TIMEOUT).getText();
+        } finally {
+            OperationMetrics.record("getText", locator, start);
+        }
     }
 
     /**
      * Wait for element to be visible
      */
     public WebElement waitForElementVisible(By locator, int timeout) {
-        return new WebDriverWait(getDriver(), Duration.ofSeconds(timeout))
-                .until(ExpectedConditions.visibilityOfElementLocated(locator));
+        return timedWait("waitVisible", locator, () -> WaitEngine.current().visible(getDriver(), locator, timeout));
+    }
+
+    /**
+     * Wait for element to be visible using the given wait mode
+     */
+    public WebElement waitForElementVisible(By locator, int timeout, WaitMode mode) {
+        return timedWait("waitVisible", locator,
+                () -> WaitEngine.current().visible(getDriver(), locator, timeout, mode));
     }
 
     /**
      * Wait for element to be clickable
      */
     public WebElement waitForElementClickable(By locator, int timeout) {
-        return new WebDriverWait(getDriver(), Duration.ofSeconds(timeout))
-                .until(ExpectedConditions.elementToBeClickable(locator));
+        return timedWait("waitClickable", locator,
+                () -> WaitEngine.current().clickable(getDriver(), locator, timeout));
+    }
+
+    /**
+     * Wait for element to be clickable using the given wait mode
+     */
+    public WebElement waitForElementClickable(By locator, int timeout, WaitMode mode) {
+        return timedWait("waitClickable", locator,
+                () -> WaitEngine.current().clickable(getDriver(), locator, timeout, mode));
+    }
+    
+    /**
+     * Run a wait, recording its latency and counting timeouts
+     */
+    private WebElement timedWait(String operation, By locator, Supplier<WebElement> wait) {
+        long start = OperationMetrics.start();
+        try {
+            return wait.get();
+        } catch (TimeoutException e) {
+            OperationMetrics.increment(operation + ".timeout");
+            throw e;
+        } finally {
+            OperationMetrics.record(operation, locator, start);
+        }
     }
     
     /**
-     * Select dropdown value by text
+     * Select dropdown value by text (case-insensitive), failing fast with the available options if missing
      */
     public void selectDropdownValue(By elementsLocator, String expValue) {
-    	List<WebElement> elements = getDriver().findElements(elementsLocator);
-    	
-    	for(WebElement ele : elements) {
-    		if(ele.getText().equalsIgnoreCase(expValue)) {
-    			try {
-    				ele.click();
-    			} catch (Exception e) {
-    				// Fallback to JavaScript click
-    				((org.openqa.selenium.JavascriptExecutor) getDriver()).executeScript("arguments[0].click();", ele);
-    			}
-    			break;
-    		}
-    	}
+        selectDropdownValue(elementsLocator, expValue, MatchMode.IGNORE_CASE);
+    }
+    
+    /**
+     * Select dropdown value by text using the given match mode - found and clicked in one browser call
+     */
+    public void selectDropdownValue(By elementsLocator, String expValue, MatchMode matchMode) {
+        DropdownSelector.select(getDriver(), elementsLocator, matchMode, List.of(expValue));
+    }
+    
+    /**
+     * Select several values of a multi-select dropdown in one browser call
+     * @return the option texts that were selected
+     */
+    public List<String> selectDropdownValues(By elementsLocator, MatchMode matchMode, String... expValues) {
+        return DropdownSelector.select(getDriver(), elementsLocator, matchMode, Arrays.asList(expValues));
     }
     
     /**
-     * Handle cookie consent with explicit waits instead of Thread.sleep
+     * Handle cookie consent - all candidate selectors are checked in one script call
+     * @return true if a consent button was clicked
      */
-    public void handleCookieConsent() {
+    public boolean handleCookieConsent() {
         try {
-            // Try multiple selectors for cookie consent with explicit waits
-            String[] selectors = {
-                "//button[contains(text(), 'Accept') or contains(text(), 'Accept All')]",
-                "//button[contains(@id, 'accept') or contains(@class, 'accept')]",
-                "//button[contains(@data-testid, 'accept')]",
-                "//div[@id='usercentrics-cmp-ui']//button[contains(text(), 'Accept')]",
-                "//*[@id='usercentrics-cmp-ui']//button[1]"
-            };
-            
-            for (String selector : selectors) {
-                By cookieConsent = By.xpath(selector);
-                if (isElementPresent(cookieConsent, TimeoutConfig.VERY_SHORT_TIMEOUT)) {
-                    click(cookieConsent);
-                    // Wait for consent to be processed using explicit wait
-                    WebDriverWait wait = new WebDriverWait(getDriver(), Duration.ofSeconds(2));
-                    wait.until(ExpectedConditions.invisibilityOfElementLocated(cookieConsent));
-                    break;
-                }
-            }
+            return CookieConsentHandler.handle(getDriver());
         } catch (TimeoutException e) {
-            // No cookie consent found, continue with test
+            // Banner did not go away in time, continue with test
+            return true;
         } catch (Exception e) {
             // Log error but don't fail the test
             System.err.println("Error handling cookie consent: " + e.getMessage());
+            return false;
         }
     }
     
     /**
-     * Check if element is present on page
+     * Check if element becomes visible within the timeout (waits the full timeout when it does not)
      */
     public boolean isElementPresent(By locator, int timeout) {
+        return appearsWithin(locator, timeout);
+    }
+    
+    /**
+     * Check if any element matches the locator right now - a single DOM query, no waiting
+     */
+    public boolean isPresentNow(By locator) {
+        long start = OperationMetrics.start();
         try {
-            waitForElementVisible(locator, timeout);
+            return !getDriver().findElements(locator).isEmpty();
+        } finally {
+            OperationMetrics.record("isPresentNow", locator, start);
+        }
+    }
+    
+    /**
+     * Check if a matching element is displayed right now, without waiting
+     */
+    public boolean isDisplayedNow(By locator) {
+        long start = OperationMetrics.start();
+        try {
+            return WaitEngine.current().displayedNow(getDriver(), locator);
+        } finally {
+            OperationMetrics.record("isDisplayedNow", locator, start);
+        }
+    }
+    
+    /**
+     * Return true as soon as the element is visible, or false once the timeout elapses
+     */
+    public boolean appearsWithin(By locator, int timeout) {
+        long start = OperationMetrics.start();
+        try {
+            WaitEngine.current().visible(getDriver(), locator, timeout);
             return true;
         } catch (TimeoutException e) {
             return false;
+        } finally {
+            OperationMetrics.record("appearsWithin", locator, start);
+        }
+    }
+    
+    /**
+     * Return true if no matching element is displayed for the whole duration,
+     * or false as soon as one appears
+     */
+    public boolean staysAbsentFor(By locator, Duration duration) {
+        long start = OperationMetrics.start();
+        try {
+            return WaitEngine.current().absentFor(getDriver(), locator, duration);
+        } finally {
+            OperationMetrics.record("staysAbsentFor", locator, start);
         }
     }
     
@@ -160,14 +275,17 @@ public class ElementUtil {
     }
     
     /**
-     * Check if element is displayed
+     * Read text, visibility and the given attributes of many elements in one round trip
+     * Reads the current DOM without waiting; results keep the order of the input map
+     */
+    public Map<String, ElementReadResult> readElements(Map<String, By> locators, String... attributeNames) {
+        return BatchElementReader.read(getDriver(), locators, Arrays.asList(attributeNames));
+    }
+    
+    /**
+     * Check if element becomes visible within the very short timeout
      */
     public boolean isDisplayed(By locator) {
-        try {
-            WebElement element = waitForElementVisible(locator, TimeoutConfig.VERY_SHORT_TIMEOUT);
-            return element.isDisplayed();
-        } catch (TimeoutException e) {
-            return false;
-        }
+        return appearsWithin(locator, TimeoutConfig.VERY_SHORT_TIMEOUT);
     }
 }
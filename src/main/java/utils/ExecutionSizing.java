@@ -0,0 +1,76 @@
+package utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+
+/**
+ * Runtime sizing of parallel test threads
+ * Bounded by available cores and by free physical memory divided by a per-browser memory estimate
+ */
+public final class ExecutionSizing {
+
+    private static final long MB = 1024L * 1024L;
+
+    private static volatile int threadCount;
+
+    private ExecutionSizing() { }
+
+    /**
+     * Thread count for the configured browser, computed once per JVM unless parallel.threads is set
+     */
+    public static int getThreadCount() {
+        int current = threadCount;
+        if (current == 0) {
+            synchronized (ExecutionSizing.class) {
+                current = threadCount;
+                if (current == 0) {
+                    current = compute(DriverProfile.fromConfig().getBrowser());
+                    threadCount = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Compute a thread count for the browser from cores and free memory
+     */
+    public static int compute(String browser) {
+        int explicit = ConfigManager.getInt("parallel.threads", 0);
+        if (explicit > 0) {
+            return explicit;
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        long perBrowserMb = ConfigManager.getLong("parallel.memoryPerBrowserMb." + browser,
+                ConfigManager.getLong("parallel.memoryPerBrowserMb", 400L));
+        if (SessionMultiplexer.isEnabled()) {
+            // Tests share a browser: each costs its share of the process plus one isolated context
+            int contexts = Math.max(1, ConfigManager.getInt("driver.multiplex.contextsPerBrowser", 4));
+            perBrowserMb = Math.max(1L, perBrowserMb / contexts + ConfigManager.getLong("parallel.memoryPerContextMb", 60L));
+        }
+        long freeMb = freePhysicalMemoryMb();
+        int byMemory = freeMb > 0 ? (int) Math.max(1L, freeMb / perBrowserMb) : cores;
+        int maxThreads = ConfigManager.getInt("parallel.maxThreads", 16);
+
+        int threads = Math.max(1, Math.min(maxThreads, Math.min(cores, byMemory)));
+        Logger.info("Parallel sizing for " + browser + " - cores: " + cores + ", free memory: " + freeMb
+                + " MB, per browser: " + perBrowserMb + " MB, threads: " + threads);
+        return threads;
+    }
+
+    /**
+     * Override the computed count, e.g. once the parallel listener has sized the suite
+     */
+    public static void setThreadCount(int count) {
+        threadCount = Math.max(1, count);
+    }
+
+    private static long freePhysicalMemoryMb() {
+        OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        if (bean instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) bean).getFreeMemorySize() / MB;
+        }
+        return -1L;
+    }
+}
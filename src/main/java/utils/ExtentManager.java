@@ -1,6 +1,9 @@
 package utils;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -10,11 +13,16 @@ import com.aventstack.extentreports.reporter.configuration.Theme;
 
 /**
  * ExtentManager for configuring and managing ExtentReports
- * Provides thread-safe report initialization and configuration
+ * Provides thread-safe report initialization and configuration.
+ * With report.journal.enabled (opt-in), test events are streamed to an on-disk journal during the run and the
+ * HTML report is rendered from it on flush
  */
 public final class ExtentManager {
     
     private static ExtentReports extent;
+    private static ReportJournal journal;
+    private static String runTimestamp;
+    private static final boolean JOURNAL_ENABLED = ConfigManager.getBoolean("report.journal.enabled", false);
     private static final String REPORT_DIR = "test-output/reports/";
     private static final String SCREENSHOT_DIR = "test-output/screenshots/";
     
@@ -34,15 +42,20 @@ public final class ExtentManager {
      * Create and configure ExtentReports
      */
     private static ExtentReports createExtentReports() {
+        String reportPath = getReportPath();
+        ExtentReports extent = newExtentReports(reportPath);
+        Logger.info("ExtentReports initialized with report path: " + reportPath);
+        return extent;
+    }
+    
+    /**
+     * Configured ExtentReports writing to the given HTML file (also used when rendering a journal)
+     */
+    static ExtentReports newExtentReports(String reportPath) {
         // Create reports directory if it doesn't exist
         createDirectory(REPORT_DIR);
         createDirectory(SCREENSHOT_DIR);
         
-        // Generate timestamp for unique report names
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
-        String reportName = "ExtentReport_" + timestamp + ".html";
-        String reportPath = REPORT_DIR + reportName;
-        
         // Create ExtentSparkReporter
         ExtentSparkReporter sparkReporter = new ExtentSparkReporter(reportPath);
         
@@ -68,11 +81,44 @@ public final class ExtentManager {
         extent.setSystemInfo("User", System.getProperty("user.name"));
         extent.setSystemInfo("Application", "VanEck Fund Explorer");
         
-        Logger.info("ExtentReports initialized with report path: " + reportPath);
-        
         return extent;
     }
     
+    /**
+     * Whether test events go to the on-disk journal (report.journal.enabled) instead of an in-memory report
+     */
+    public static boolean isJournalEnabled() {
+        return JOURNAL_ENABLED;
+    }
+    
+    /**
+     * Journal for this run, opened on first use
+     */
+    static synchronized ReportJournal getJournal() {
+        if (journal == null) {
+            Path file = Paths.get(REPORT_DIR, "ExtentJournal_" + getRunTimestamp() + ".tsv");
+            try {
+                journal = ReportJournal.open(file, ConfigManager.getInt("report.journal.bufferSize", 4096));
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to open report journal " + file, e);
+            }
+            Logger.info("Report journal opened: " + file);
+        }
+        return journal;
+    }
+    
+    private static synchronized String getRunTimestamp() {
+        if (runTimestamp == null) {
+            // Generate timestamp for unique report names
+            runTimestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+        }
+        return runTimestamp;
+    }
+    
+    private static String getReportPath() {
+        return REPORT_DIR + "ExtentReport_" + getRunTimestamp() + ".html";
+    }
+    
     /**
      * Create directory if it doesn't exist
      */
@@ -98,10 +144,53 @@ public final class ExtentManager {
         return REPORT_DIR;
     }
     
+    /**
+     * Add a system info entry to the report
+     */
+    public static synchronized void setSystemInfo(String key, String value) {
+        if (JOURNAL_ENABLED) {
+            getJournal().append(ReportJournal.Event.INFO, 0L, key, value);
+        } else {
+            getExtentReports().setSystemInfo(key, value);
+        }
+    }
+    
+    /**
+     * Add a metrics table to the report's system info, one entry per row, instead of a pseudo-test that
+     * would count towards the test totals. The first keyColumns columns name the entry, e.g.
+     * "Slowest locators: click //button" = "Count 12, Mean ms 40.1, ..."
+     */
+    public static void setSystemInfoTable(String section, String[][] table, int keyColumns) {
+        String[] header = table[0];
+        for (int row = 1; row < table.length; row++) {
+            StringBuilder key = new StringBuilder(section).append(':');
+            for (int column = 0; column < keyColumns; column++) {
+                key.append(' ').append(table[row][column]);
+            }
+            StringBuilder value = new StringBuilder();
+            for (int column = keyColumns; column < header.length; column++) {
+                if (value.length() > 0) {
+                    value.append(", ");
+                }
+                value.append(header[column]).append(' ').append(table[row][column]);
+            }
+            setSystemInfo(key.toString(), value.toString());
+        }
+    }
+    
     /**
      * Flush and close ExtentReports
      */
     public static synchronized void flushExtentReports() {
+        // Make sure linked screenshots exist before the report is written
+        ScreenshotWriter.flush();
+        if (journal != null) {
+            // Everything written so far is on disk; render the HTML report from the journal
+            journal.flush();
+            ReportJournalRenderer.render(journal.getFile(), getReportPath(),
+                    ConfigManager.getInt("report.render.testsPerFile", 500));
+            Logger.info("ExtentReports rendered from journal " + journal.getFile());
+        }
         if (extent != null) {
             extent.flush();
             Logger.info("ExtentReports flushed and closed");
@@ -1,53 +1,83 @@
 package utils;
 
-import java.io.File;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
 import org.testng.ITestResult;
 
+import com.aventstack.extentreports.ExtentReports;
 import com.aventstack.extentreports.ExtentTest;
 import com.aventstack.extentreports.Status;
 import com.aventstack.extentreports.markuputils.ExtentColor;
 import com.aventstack.extentreports.markuputils.MarkupHelper;
+import com.aventstack.extentreports.model.Log;
+import com.aventstack.extentreports.model.Media;
+import com.aventstack.extentreports.model.Test;
 
 /**
  * ExtentTestManager for thread-safe test reporting
- * Manages individual test instances and logging
+ * Manages individual test instances and logging.
+ * In journal mode (report.journal.enabled, off by default) events are appended to the run's report journal
+ * without any shared lock. createTest() and getTest() then return a handle from a detached, per-thread
+ * ExtentReports; entries logged on it directly are copied into the journal when the test is cleaned up
  */
 public final class ExtentTestManager {
     
     private static final ThreadLocal<ExtentTest> testThreadLocal = new ThreadLocal<>();
     private static final ThreadLocal<String> testNameThreadLocal = new ThreadLocal<>();
+    private static final ThreadLocal<Long> testIdThreadLocal = new ThreadLocal<>();
+    /** Journal mode: report with no reporters attached that only holds this thread's current handle */
+    private static final ThreadLocal<ExtentReports> detachedThreadLocal = ThreadLocal.withInitial(ExtentReports::new);
     
     private ExtentTestManager() { }
     
     /**
      * Create a new test in ExtentReports
+     * @return the ExtentTest, or a journal-backed handle in journal mode
      */
-    public static synchronized ExtentTest createTest(String testName, String description) {
-        ExtentTest test = ExtentManager.getExtentReports().createTest(testName, description);
-        testThreadLocal.set(test);
-        testNameThreadLocal.set(testName);
-        
+    public static ExtentTest createTest(String testName, String description) {
+        ExtentTest test = startTest(testName, description, null);
         Logger.info("Created ExtentTest: " + testName);
         return test;
     }
     
     /**
      * Create a new test in ExtentReports with category
+     * @return the ExtentTest, or a journal-backed handle in journal mode
      */
-    public static synchronized ExtentTest createTest(String testName, String description, String category) {
-        ExtentTest test = ExtentManager.getExtentReports().createTest(testName, description);
-        test.assignCategory(category);
-        testThreadLocal.set(test);
-        testNameThreadLocal.set(testName);
-        
+    public static ExtentTest createTest(String testName, String description, String category) {
+        ExtentTest test = startTest(testName, description, category);
         Logger.info("Created ExtentTest: " + testName + " with category: " + category);
         return test;
     }
     
+    private static ExtentTest startTest(String testName, String description, String category) {
+        testNameThreadLocal.set(testName);
+        ExtentTest test;
+        if (ExtentManager.isJournalEnabled()) {
+            ReportJournal journal = ExtentManager.getJournal();
+            long testId = journal.nextTestId();
+            journal.append(ReportJournal.Event.START, testId, testName, description,
+                    category, Thread.currentThread().getName());
+            testIdThreadLocal.set(testId);
+            // Thread-confined report, so no lock; never flushed, its logs reach the journal in cleanup()
+            test = detachedThreadLocal.get().createTest(testName, description);
+        } else {
+            // ExtentReports.createTest is not thread-safe
+            synchronized (ExtentTestManager.class) {
+                test = ExtentManager.getExtentReports().createTest(testName, description);
+            }
+        }
+        if (category != null) {
+            test.assignCategory(category);
+        }
+        testThreadLocal.set(test);
+        return test;
+    }
+    
     /**
      * Get current test instance
      */
@@ -59,9 +89,7 @@ public final class ExtentTestManager {
      * Log info message to current test
      */
     public static void logInfo(String message) {
-        ExtentTest test = getTest();
-        if (test != null) {
-            test.log(Status.INFO, message);
+        if (record(Status.INFO, null, message)) {
             Logger.info(message);
         }
     }
@@ -70,9 +98,7 @@ public final class ExtentTestManager {
      * Log pass message to current test
      */
     public static void logPass(String message) {
-        ExtentTest test = getTest();
-        if (test != null) {
-            test.log(Status.PASS, MarkupHelper.createLabel(message, ExtentColor.GREEN));
+        if (record(Status.PASS, ExtentColor.GREEN, message)) {
             Logger.info("PASS: " + message);
         }
     }
@@ -81,9 +107,7 @@ public final class ExtentTestManager {
      * Log fail message to current test
      */
     public static void logFail(String message) {
-        ExtentTest test = getTest();
-        if (test != null) {
-            test.log(Status.FAIL, MarkupHelper.createLabel(message, ExtentColor.RED));
+        if (record(Status.FAIL, ExtentColor.RED, message)) {
             Logger.error("FAIL: " + message);
         }
     }
@@ -92,9 +116,7 @@ public final class ExtentTestManager {
      * Log skip message to current test
      */
     public static void logSkip(String message) {
-        ExtentTest test = getTest();
-        if (test != null) {
-            test.log(Status.SKIP, MarkupHelper.createLabel(message, ExtentColor.ORANGE));
+        if (record(Status.SKIP, ExtentColor.ORANGE, message)) {
             Logger.warn("SKIP: " + message);
         }
     }
@@ -103,9 +125,7 @@ public final class ExtentTestManager {
      * Log warning message to current test
      */
     public static void logWarning(String message) {
-        ExtentTest test = getTest();
-        if (test != null) {
-            test.log(Status.WARNING, MarkupHelper.createLabel(message, ExtentColor.YELLOW));
+        if (record(Status.WARNING, ExtentColor.YELLOW, message)) {
             Logger.warn(message);
         }
     }
@@ -114,28 +134,31 @@ public final class ExtentTestManager {
      * Attach screenshot to current test
      */
     public static void attachScreenshot(String screenshotPath, String title) {
+        Long testId = testIdThreadLocal.get();
         ExtentTest test = getTest();
-        if (test != null) {
+        if (testId != null) {
+            ExtentManager.getJournal().append(ReportJournal.Event.MEDIA, testId, screenshotPath, title);
+        } else if (test != null) {
             test.addScreenCaptureFromPath(screenshotPath, title);
-            Logger.info("Screenshot attached: " + title);
+        } else {
+            return;
         }
+        Logger.info("Screenshot attached: " + title);
     }
     
     /**
      * Take screenshot and attach to report
+     * The image is captured as bytes and written in the background (see ScreenshotWriter)
      */
     public static String takeScreenshot(WebDriver driver, String testName) {
         try {
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-            String fileName = testName + "_" + timestamp + ".png";
-            String screenshotPath = ExtentManager.getScreenshotDir() + fileName;
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss_SSS"));
             
             // Take screenshot using Selenium
-            org.openqa.selenium.TakesScreenshot takesScreenshot = (org.openqa.selenium.TakesScreenshot) driver;
-            File screenshotFile = takesScreenshot.getScreenshotAs(org.openqa.selenium.OutputType.FILE);
+            byte[] screenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
             
-            // Copy file to target location
-            org.apache.commons.io.FileUtils.copyFile(screenshotFile, new File(screenshotPath));
+            // Hand off to the background writer; the final path is known immediately
+            String screenshotPath = ScreenshotWriter.submit(screenshot, testName + "_" + timestamp);
             
             // Attach to report
             attachScreenshot(screenshotPath, "Screenshot at " + timestamp);
@@ -151,31 +174,88 @@ public final class ExtentTestManager {
      * Handle test result and update ExtentReports
      */
     public static void handleTestResult(ITestResult result) {
-        ExtentTest test = getTest();
-        if (test != null) {
-            switch (result.getStatus()) {
-                case ITestResult.SUCCESS:
-                    test.log(Status.PASS, "Test passed successfully");
-                    break;
-                case ITestResult.FAILURE:
-                    test.log(Status.FAIL, "Test failed: " + result.getThrowable().getMessage());
+        switch (result.getStatus()) {
+            case ITestResult.SUCCESS:
+                record(Status.PASS, null, "Test passed successfully");
+                break;
+            case ITestResult.FAILURE:
+                if (record(Status.FAIL, null, "Test failed: " + result.getThrowable().getMessage())) {
                     // Take screenshot on failure
                     if (DriverManager.getDriver() != null) {
                         takeScreenshot(DriverManager.getDriver(), testNameThreadLocal.get());
                     }
-                    break;
-                case ITestResult.SKIP:
-                    test.log(Status.SKIP, "Test was skipped: " + result.getSkipCausedBy());
-                    break;
-            }
+                }
+                break;
+            case ITestResult.SKIP:
+                record(Status.SKIP, null, "Test was skipped: " + result.getSkipCausedBy());
+                break;
         }
     }
     
     /**
-     * Clean up thread local variables
+     * Write a log entry for the current test (optionally as a coloured label)
+     * @return false when no test has been created on this thread
+     */
+    private static boolean record(Status status, ExtentColor color, String message) {
+        Long testId = testIdThreadLocal.get();
+        if (testId != null) {
+            ExtentManager.getJournal().append(ReportJournal.Event.LOG, testId, status.name(),
+                    color != null ? color.name() : null, message);
+            return true;
+        }
+        ExtentTest test = getTest();
+        if (test == null) {
+            return false;
+        }
+        if (color != null) {
+            test.log(status, MarkupHelper.createLabel(message, color));
+        } else {
+            test.log(status, message);
+        }
+        return true;
+    }
+    
+    /**
+     * Clean up thread local variables (closes the current test's journal entry)
      */
     public static void cleanup() {
+        Long testId = testIdThreadLocal.get();
+        if (testId != null) {
+            ExtentTest handle = testThreadLocal.get();
+            if (handle != null) {
+                journalDirectEntries(testId, handle.getModel());
+                detachedThreadLocal.get().removeTest(handle);
+            }
+            ExtentManager.getJournal().append(ReportJournal.Event.END, testId);
+            testIdThreadLocal.remove();
+        }
         testThreadLocal.remove();
         testNameThreadLocal.remove();
     }
+    
+    /**
+     * Copy logs and media recorded directly on a journal-mode handle (and its nodes) into the journal
+     */
+    private static void journalDirectEntries(long testId, Test model) {
+        ReportJournal journal = ExtentManager.getJournal();
+        for (Log log : model.getLogs()) {
+            String message = log.getDetails();
+            if (log.hasException()) {
+                String trace = log.getException().getStackTrace();
+                message = message == null || message.isEmpty() ? trace : message + "\n" + trace;
+            }
+            if (message != null && !message.isEmpty()) {
+                journal.append(ReportJournal.Event.LOG, testId, log.getStatus().name(), null, message);
+            }
+            if (log.hasMedia() && log.getMedia().getPath() != null) {
+                journal.append(ReportJournal.Event.MEDIA, testId, log.getMedia().getPath(), log.getMedia().getTitle());
+            }
+        }
+        for (Media media : model.getMedia()) {
+            if (media.getPath() != null) {
+                journal.append(ReportJournal.Event.MEDIA, testId, media.getPath(), media.getTitle());
+            }
+        }
+        model.getChildren().forEach(child -> journalDirectEntries(testId, child));
+    }
 }
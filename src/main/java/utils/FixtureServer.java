@@ -0,0 +1,144 @@
+package utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Embedded HTTP server on the loopback interface serving recorded page snapshots from the classpath
+ * A request path maps to a resource under fixture.root (a trailing "/" serves index.html; the query
+ * string is ignored). Resources are read once and then served from memory
+ */
+public final class FixtureServer {
+
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "html", "text/html; charset=utf-8",
+            "js", "application/javascript; charset=utf-8",
+            "css", "text/css; charset=utf-8",
+            "json", "application/json; charset=utf-8",
+            "svg", "image/svg+xml",
+            "png", "image/png");
+
+    private static FixtureServer instance;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final String root;
+    private final Map<String, Optional<byte[]>> cache = new ConcurrentHashMap<>();
+
+    private FixtureServer(int port, String root) throws IOException {
+        this.root = root.endsWith("/") ? root.substring(0, root.length() - 1) : root;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fixture-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Start the server on first use (fixture.port, 0 = any free port) and return it
+     */
+    public static synchronized FixtureServer start() {
+        if (instance == null) {
+            try {
+                instance = new FixtureServer(ConfigManager.getInt("fixture.port", 0),
+                        ConfigManager.get("fixture.root", "fixtures/vaneck"));
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to start fixture server", e);
+            }
+            instance.server.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(FixtureServer::stop, "fixture-server-stop"));
+            Logger.info("Fixture server serving " + instance.root + " at " + instance.getBaseUrl());
+        }
+        return instance;
+    }
+
+    /**
+     * Stop the server if it is running
+     */
+    public static synchronized void stop() {
+        if (instance != null) {
+            instance.server.stop(0);
+            instance.executor.shutdownNow();
+            instance = null;
+        }
+    }
+
+    /**
+     * Absolute URL for an application path: this server when fixture.enabled, otherwise app.baseUrl
+     */
+    public static String appUrl(String path) {
+        String baseUrl = ConfigManager.getBoolean("fixture.enabled", false)
+                ? start().getBaseUrl()
+                : ConfigManager.get("app.baseUrl", "https://www.vaneck.com");
+        return (baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl) + path;
+    }
+
+    /**
+     * Base URL without a trailing slash, e.g. http://127.0.0.1:51234
+     */
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getAddress().getHostAddress() + ":" + server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            String path = exchange.getRequestURI().getPath();
+            if (path.contains("..")) {
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+            String resource = root + (path.endsWith("/") ? path + "index.html" : path);
+            Optional<byte[]> body = cache.computeIfAbsent(resource, FixtureServer::load);
+            if (body.isEmpty()) {
+                Logger.debug("Fixture not found: " + path);
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            byte[] bytes = body.get();
+            exchange.getResponseHeaders().set("Content-Type", contentType(resource));
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static Optional<byte[]> load(String resource) {
+        try (InputStream in = FixtureServer.class.getClassLoader().getResourceAsStream(resource)) {
+            return in == null ? Optional.empty() : Optional.of(in.readAllBytes());
+        } catch (IOException e) {
+            Logger.error("Failed to read fixture " + resource, e);
+            return Optional.empty();
+        }
+    }
+
+    private static String contentType(String resource) {
+        String extension = resource.substring(resource.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        return CONTENT_TYPES.getOrDefault(extension, "application/octet-stream");
+    }
+}
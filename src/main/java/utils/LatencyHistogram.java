@@ -0,0 +1,75 @@
+package utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket latency histogram that threads can record into without locking
+ * Bucket bounds are chosen for browser operations (1ms to 30s); percentiles are estimated from bucket bounds
+ */
+final class LatencyHistogram {
+
+    /** Upper bucket bounds in milliseconds; one more bucket catches everything slower */
+    static final long[] BOUNDS_MILLIS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS_MILLIS.length + 1);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+    void record(long nanos) {
+        int bucket = 0;
+        while (bucket < BOUNDS_MILLIS.length && nanos > TimeUnit.MILLISECONDS.toNanos(BOUNDS_MILLIS[bucket])) {
+            bucket++;
+        }
+        buckets.incrementAndGet(bucket);
+        count.increment();
+        sumNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    long getCount() {
+        return count.sum();
+    }
+
+    double getSumMillis() {
+        return sumNanos.sum() / 1_000_000.0;
+    }
+
+    double getMeanMillis() {
+        long samples = getCount();
+        return samples == 0L ? 0.0 : getSumMillis() / samples;
+    }
+
+    double getMaxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * Samples in bucket i (not cumulative)
+     */
+    long getBucket(int index) {
+        return buckets.get(index);
+    }
+
+    /**
+     * Upper bound of the bucket containing the given quantile (the observed max for the overflow bucket)
+     */
+    double percentileMillis(double quantile) {
+        long samples = getCount();
+        if (samples == 0L) {
+            return 0.0;
+        }
+        long rank = (long) Math.ceil(quantile * samples);
+        long seen = 0L;
+        for (int i = 0; i < BOUNDS_MILLIS.length; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(BOUNDS_MILLIS[i], getMaxMillis());
+            }
+        }
+        return getMaxMillis();
+    }
+}
@@ -0,0 +1,235 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.By;
+
+/**
+ * Parameterized XPath or CSS locator parsed once into literal and placeholder segments
+ * Placeholders use the {name} syntax and are bound positionally. Bound values are escaped for the
+ * locator language, and resolved By instances are kept in a bounded LRU cache
+ */
+public final class LocatorTemplate {
+
+    public enum Type { XPATH, CSS }
+
+    private static final int CACHE_SIZE = ConfigManager.getInt("locator.cacheSize", 512);
+    private static final Map<CacheKey, By> BY_CACHE = new LinkedHashMap<>(64, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, By> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private final String pattern;
+    private final Type type;
+    private final String[] literals;
+    private final String[] placeholders;
+    private final char[] quotes;
+    private final int literalLength;
+
+    private LocatorTemplate(String pattern, Type type) {
+        this.pattern = pattern;
+        this.type = type;
+
+        List<String> parts = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int position = 0;
+        int length = 0;
+        while (true) {
+            int open = pattern.indexOf('{', position);
+            int close = open < 0 ? -1 : pattern.indexOf('}', open + 1);
+            if (close < 0) {
+                parts.add(pattern.substring(position));
+                length += pattern.length() - position;
+                break;
+            }
+            parts.add(pattern.substring(position, open));
+            names.add(pattern.substring(open, close + 1));
+            length += open - position;
+            position = close + 1;
+        }
+        this.literals = parts.toArray(new String[0]);
+        this.placeholders = names.toArray(new String[0]);
+        this.literalLength = length;
+
+        // Quote character wrapping each placeholder, e.g. '{x}' -> ', so values can be escaped for that context
+        this.quotes = new char[literals.length - 1];
+        for (int i = 0; i < quotes.length; i++) {
+            String before = literals[i];
+            String after = literals[i + 1];
+            char quote = before.isEmpty() ? 0 : before.charAt(before.length() - 1);
+            boolean quoted = (quote == '\'' || quote == '"') && !after.isEmpty() && after.charAt(0) == quote;
+            quotes[i] = quoted ? quote : 0;
+        }
+    }
+
+    public static LocatorTemplate xpath(String pattern) {
+        return new LocatorTemplate(pattern, Type.XPATH);
+    }
+
+    public static LocatorTemplate css(String pattern) {
+        return new LocatorTemplate(pattern, Type.CSS);
+    }
+
+    /**
+     * Raw template without escaping, matching XpathUtil.replaceXpath substitution
+     */
+    static LocatorTemplate raw(String pattern) {
+        return new LocatorTemplate(pattern, null);
+    }
+
+    public int getPlaceholderCount() {
+        return quotes.length;
+    }
+
+    /**
+     * Substitute values into the placeholders in order; extra values are ignored,
+     * and placeholders without a value are left as they are
+     */
+    public String bind(String... values) {
+        int estimate = literalLength;
+        for (String value : values) {
+            estimate += value.length() + 2;
+        }
+        StringBuilder builder = new StringBuilder(estimate);
+        builder.append(literals[0]);
+        for (int i = 0; i < quotes.length; i++) {
+            String next = literals[i + 1];
+            if (i < values.length) {
+                String value = values[i];
+                if (type == Type.XPATH && quotes[i] != 0 && value.indexOf(quotes[i]) >= 0) {
+                    // Replace the quoted literal, including its quotes, with a concat() expression
+                    builder.setLength(builder.length() - 1);
+                    appendXpathConcat(builder, value);
+                    next = next.substring(1);
+                } else {
+                    appendValue(builder, value, quotes[i]);
+                }
+            } else {
+                builder.append(placeholders[i]);
+            }
+            builder.append(next);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Bound locator, served from the cache when the same template and values were resolved before
+     */
+    public By toBy(String... values) {
+        CacheKey key = new CacheKey(this, values);
+        synchronized (BY_CACHE) {
+            By cached = BY_CACHE.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        String expression = bind(values);
+        By by = type == Type.CSS ? By.cssSelector(expression) : By.xpath(expression);
+        synchronized (BY_CACHE) {
+            BY_CACHE.put(key, by);
+        }
+        return by;
+    }
+
+    private void appendValue(StringBuilder builder, String value, char quote) {
+        if (type != Type.CSS) {
+            builder.append(value);
+        } else if (quote != 0) {
+            appendCssString(builder, value);
+        } else {
+            appendCssIdentifier(builder, value);
+        }
+    }
+
+    /**
+     * XPath 1.0 literals cannot escape quotes, so a quoted value containing its own quote character
+     * is emitted as concat('It', "'", 's') in place of the quoted literal
+     */
+    private static void appendXpathConcat(StringBuilder builder, String value) {
+        builder.append("concat(");
+        int tokens = 0;
+        int start = 0;
+        for (int i = 0; i <= value.length(); i++) {
+            if (i == value.length() || value.charAt(i) == '\'') {
+                if (i > start) {
+                    builder.append(tokens++ > 0 ? ", " : "").append('\'').append(value, start, i).append('\'');
+                }
+                if (i < value.length()) {
+                    builder.append(tokens++ > 0 ? ", " : "").append("\"'\"");
+                }
+                start = i + 1;
+            }
+        }
+        if (tokens < 2) {
+            builder.append(", ''");
+        }
+        builder.append(')');
+    }
+
+    private static void appendCssString(StringBuilder builder, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\'' || c == '\\') {
+                builder.append('\\');
+            }
+            builder.append(c);
+        }
+    }
+
+    /**
+     * Unquoted CSS context (e.g. #{id}): backslash-escape everything outside [A-Za-z0-9_-] and a leading digit
+     */
+    private static void appendCssIdentifier(StringBuilder builder, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (i == 0 && Character.isDigit(c)) {
+                builder.append('\\').append(Integer.toHexString(c)).append(' ');
+            } else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '_' || c == '-' || c > 0x7F) {
+                builder.append(c);
+            } else {
+                builder.append('\\').append(c);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+
+    private static final class CacheKey {
+        private final LocatorTemplate template;
+        private final String[] values;
+        private final int hash;
+
+        CacheKey(LocatorTemplate template, String[] values) {
+            this.template = template;
+            // Copy: the caller's varargs array may be reused and changed after the lookup
+            this.values = values.clone();
+            this.hash = 31 * System.identityHashCode(template) + Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey that = (CacheKey) other;
+            return template == that.template && Arrays.equals(values, that.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
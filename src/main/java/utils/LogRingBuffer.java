@@ -0,0 +1,72 @@
+package utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free multi-producer, single-consumer ring buffer
+ * Producers claim a sequence with CAS and publish into the slot; the consumer drains slots in sequence
+ * order and stops at the first unpublished one, so events from any one thread stay in order
+ */
+final class LogRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final int capacity;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    LogRingBuffer(int requestedCapacity) {
+        int size = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.capacity = size;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * Publish an event, or return false when the buffer is full
+     */
+    boolean offer(E event) {
+        while (true) {
+            long sequence = tail.get();
+            if (sequence - head >= capacity) {
+                return false;
+            }
+            if (tail.compareAndSet(sequence, sequence + 1)) {
+                slots.set((int) (sequence & mask), event);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Consume up to max published events in order; only the single consumer thread may call this
+     * @return number of events consumed
+     */
+    int drain(Consumer<E> consumer, int max) {
+        long sequence = head;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (sequence & mask);
+            E event = slots.get(index);
+            if (event == null) {
+                break;
+            }
+            slots.set(index, null);
+            sequence++;
+            drained++;
+            consumer.accept(event);
+        }
+        head = sequence;
+        return drained;
+    }
+
+    boolean isEmpty() {
+        return tail.get() == head;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
@@ -1,59 +1,368 @@
 package utils;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Simple logging utility for the test framework
- * Provides consistent logging format across all components
+ * Provides consistent logging format across all components.
+ * Levels are checked before any formatting. In async mode (logger.async) callers only publish an event
+ * into a lock-free ring buffer; a background writer formats and writes events in batches, optionally
+ * also to a per-test JSONL file (logger.jsonl.enabled)
  */
 public final class Logger {
-    
+
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
-    
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final String JSONL_DIR = "test-output/logs/";
+    private static final int BATCH_SIZE = 256;
+
+    /**
+     * What callers do when the async buffer is full
+     */
+    public enum OverflowPolicy {
+        /** Wait for the writer to free space - nothing is lost */
+        BLOCK,
+        /** Discard the event and count it; the count is reported by the writer */
+        DROP
+    }
+
+    private enum Level { DEBUG, INFO, WARN, ERROR }
+
+    private static final Level THRESHOLD = ConfigManager.snapshot().getEnum("logger.level", Level.class, Level.DEBUG);
+    private static final boolean ASYNC = ConfigManager.getBoolean("logger.async", false);
+    private static final boolean JSONL = ConfigManager.getBoolean("logger.jsonl.enabled", false);
+    private static final OverflowPolicy OVERFLOW =
+            ConfigManager.snapshot().getEnum("logger.overflow", OverflowPolicy.class, OverflowPolicy.BLOCK);
+
+    private static final ThreadLocal<String> TEST_CONTEXT = new ThreadLocal<>();
+    private static final AtomicLong DROPPED = new AtomicLong();
+    private static final AtomicLong PUBLISHED = new AtomicLong();
+    /** Events the writer has printed and flushed; only the writer thread updates it */
+    private static volatile long written;
+    private static final LogRingBuffer<LogEvent> BUFFER =
+            ASYNC ? new LogRingBuffer<>(ConfigManager.getInt("logger.bufferSize", 8192)) : null;
+    private static final Thread WRITER = ASYNC ? startWriter() : null;
+
     private Logger() { }
-    
+
     /**
      * Log info message
      */
     public static void info(String message) {
-        log("INFO", message);
+        log(Level.INFO, message);
     }
-    
+
     /**
      * Log warning message
      */
     public static void warn(String message) {
-        log("WARN", message);
+        log(Level.WARN, message);
     }
-    
+
     /**
      * Log error message
      */
     public static void error(String message) {
-        log("ERROR", message);
+        log(Level.ERROR, message);
     }
-    
+
     /**
      * Log error message with exception
      */
     public static void error(String message, Throwable throwable) {
-        log("ERROR", message + " - " + throwable.getMessage());
+        if (isEnabled(Level.ERROR)) {
+            log(Level.ERROR, message + " - " + throwable.getMessage());
+        }
     }
-    
+
     /**
      * Log debug message
      */
     public static void debug(String message) {
-        log("DEBUG", message);
+        log(Level.DEBUG, message);
+    }
+
+    /**
+     * Check before building expensive debug messages
+     */
+    public static boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    /**
+     * Tag subsequent log lines from this thread with a test name (routes them to that test's JSONL file)
+     */
+    public static void setTestContext(String testName) {
+        TEST_CONTEXT.set(testName);
     }
-    
+
+    /**
+     * Clear the test tag for this thread and close its JSONL file once its events are written
+     */
+    public static void clearTestContext() {
+        String testName = TEST_CONTEXT.get();
+        TEST_CONTEXT.remove();
+        if (testName == null || !JSONL) {
+            return;
+        }
+        LogEvent closeMarker = new LogEvent(null, 0L, null, null, testName, true);
+        if (ASYNC) {
+            // Closed by the writer after the test's earlier events
+            publish(closeMarker);
+        } else {
+            write(closeMarker);
+        }
+    }
+
+    /**
+     * Block until every event published so far has been written
+     */
+    public static void flush() {
+        if (!ASYNC) {
+            System.out.flush();
+            return;
+        }
+        long target = PUBLISHED.get();
+        while (written < target && WRITER.isAlive()) {
+            LockSupport.unpark(WRITER);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    private static boolean isEnabled(Level level) {
+        return level.ordinal() >= THRESHOLD.ordinal();
+    }
+
     /**
      * Internal logging method
      */
-    private static void log(String level, String message) {
-        String timestamp = LocalDateTime.now().format(FORMATTER);
-        String threadName = Thread.currentThread().getName();
-        System.out.println(String.format("[%s] [%s] [%s] %s", timestamp, level, threadName, message));
+    private static void log(Level level, String message) {
+        if (!isEnabled(level)) {
+            return;
+        }
+        LogEvent event = new LogEvent(level, System.currentTimeMillis(), Thread.currentThread().getName(),
+                message, TEST_CONTEXT.get(), false);
+        if (ASYNC) {
+            publish(event);
+        } else {
+            write(event);
+        }
+    }
+
+    private static void publish(LogEvent event) {
+        if (BUFFER.offer(event)) {
+            PUBLISHED.incrementAndGet();
+            return;
+        }
+        if (OVERFLOW == OverflowPolicy.DROP) {
+            DROPPED.incrementAndGet();
+            return;
+        }
+        while (!BUFFER.offer(event)) {
+            if (!WRITER.isAlive()) {
+                // Nothing will drain the buffer any more - write on this thread rather than hang
+                write(event);
+                return;
+            }
+            LockSupport.unpark(WRITER);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        PUBLISHED.incrementAndGet();
+    }
+
+    /**
+     * Synchronous write on the calling thread
+     */
+    private static void write(LogEvent event) {
+        if (event.closeMarker) {
+            synchronized (Logger.class) {
+                JsonlSink.SYNC.append(event);
+            }
+            return;
+        }
+        System.out.println(format(event, new StringBuilder(64 + event.message.length())));
+        if (JSONL && event.testName != null) {
+            synchronized (Logger.class) {
+                JsonlSink.SYNC.append(event);
+            }
+        }
+    }
+
+    private static StringBuilder format(LogEvent event, StringBuilder line) {
+        line.append('[').append(FORMATTER.format(LocalDateTime.ofInstant(Instant.ofEpochMilli(event.timestamp), ZONE)))
+                .append("] [").append(event.level.name())
+                .append("] [").append(event.threadName)
+                .append("] ").append(event.message);
+        return line;
+    }
+
+    private static Thread startWriter() {
+        Thread writer = new Thread(Logger::runWriter, "async-logger");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(Logger::flush, "async-logger-flush"));
+        return writer;
+    }
+
+    /**
+     * Background writer: drain a batch, format it into one buffer and write it with a single print
+     */
+    private static void runWriter() {
+        StringBuilder batch = new StringBuilder(BATCH_SIZE * 128);
+        JsonlSink sink = JSONL ? new JsonlSink() : null;
+        long reportedDrops = 0L;
+        while (true) {
+            batch.setLength(0);
+            int drained = BUFFER.drain(event -> {
+                if (sink != null && event.testName != null) {
+                    sink.append(event);
+                }
+                if (!event.closeMarker) {
+                    format(event, batch).append(System.lineSeparator());
+                }
+            }, BATCH_SIZE);
+            long dropped = DROPPED.get();
+            if (dropped != reportedDrops) {
+                format(new LogEvent(Level.WARN, System.currentTimeMillis(), "async-logger",
+                        (dropped - reportedDrops) + " log event(s) dropped - buffer full", null, false), batch)
+                        .append(System.lineSeparator());
+                reportedDrops = dropped;
+            }
+            if (batch.length() > 0) {
+                System.out.print(batch);
+                System.out.flush();
+            }
+            if (sink != null) {
+                sink.flush();
+            }
+            // Only now is the batch on its way out; flush() waits for this, not for the buffer to empty
+            written += drained;
+            if (drained == 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+    }
+
+    private static final class LogEvent {
+        private final Level level;
+        private final long timestamp;
+        private final String threadName;
+        private final String message;
+        private final String testName;
+        private final boolean closeMarker;
+
+        LogEvent(Level level, long timestamp, String threadName, String message, String testName, boolean closeMarker) {
+            this.level = level;
+            this.timestamp = timestamp;
+            this.threadName = threadName;
+            this.message = message;
+            this.testName = testName;
+            this.closeMarker = closeMarker;
+        }
+    }
+
+    /**
+     * One JSON object per line, one file per test under test-output/logs/
+     */
+    private static final class JsonlSink {
+        private static final JsonlSink SYNC = new JsonlSink();
+
+        private final Map<String, Writer> writers = new HashMap<>();
+
+        void append(LogEvent event) {
+            try {
+                if (event.closeMarker) {
+                    Writer writer = writers.remove(event.testName);
+                    if (writer != null) {
+                        writer.close();
+                    }
+                    return;
+                }
+                Writer writer = writers.get(event.testName);
+                if (writer == null) {
+                    Path directory = Paths.get(JSONL_DIR);
+                    Files.createDirectories(directory);
+                    writer = Files.newBufferedWriter(directory.resolve(sanitize(event.testName) + ".jsonl"),
+                            StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                    writers.put(event.testName, writer);
+                }
+                StringBuilder json = new StringBuilder(96 + event.message.length());
+                json.append("{\"ts\":").append(event.timestamp)
+                        .append(",\"level\":\"").append(event.level.name())
+                        .append("\",\"thread\":");
+                appendJsonString(json, event.threadName);
+                json.append(",\"test\":");
+                appendJsonString(json, event.testName);
+                json.append(",\"message\":");
+                appendJsonString(json, event.message);
+                json.append("}\n");
+                writer.write(json.toString());
+                if (this == SYNC) {
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to write JSONL log for " + event.testName + ": " + e.getMessage());
+            }
+        }
+
+        void flush() {
+            for (Writer writer : writers.values()) {
+                try {
+                    writer.flush();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        private static String sanitize(String name) {
+            return name.replaceAll("[^A-Za-z0-9._-]", "_");
+        }
+
+        private static void appendJsonString(StringBuilder json, String value) {
+            json.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"':
+                        json.append("\\\"");
+                        break;
+                    case '\\':
+                        json.append("\\\\");
+                        break;
+                    case '\n':
+                        json.append("\\n");
+                        break;
+                    case '\r':
+                        json.append("\\r");
+                        break;
+                    case '\t':
+                        json.append("\\t");
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            json.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                        } else {
+                            json.append(c);
+                        }
+                }
+            }
+            json.append('"');
+        }
     }
 }
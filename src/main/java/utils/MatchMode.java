@@ -0,0 +1,13 @@
+package utils;
+
+/**
+ * How option text is compared when selecting dropdown values
+ */
+public enum MatchMode {
+    /** Text must be identical (leading/trailing whitespace ignored) */
+    EXACT,
+    /** Case-insensitive comparison (leading/trailing whitespace ignored) */
+    IGNORE_CASE,
+    /** Case-insensitive with leading/trailing whitespace trimmed and inner runs collapsed to one space */
+    NORMALIZED
+}
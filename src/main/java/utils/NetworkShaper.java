@@ -0,0 +1,381 @@
+package utils;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.devtools.NetworkInterceptor;
+import org.openqa.selenium.remote.http.HttpHandler;
+import org.openqa.selenium.remote.http.HttpMethod;
+
+/**
+ * Request blocking (network.block.profile) and throttling (network.throttle.profile) for new sessions
+ * Blocking intercepts requests through DevTools; sessions whose DevTools connection could not be opened
+ * fall back to CDP URL patterns, which only support block_media - other blocking profiles fail the session
+ * start instead of running unblocked. Throttling uses CDP network emulation. Both need a
+ * Chromium browser. reportPage() logs requests, bytes transferred and requests blocked for each page; with
+ * network.measureSavings, the size of blocked resources is fetched in the background and counted for the
+ * page that requested them
+ */
+public final class NetworkShaper {
+
+    /**
+     * Which requests a session is allowed to make
+     */
+    public enum BlockingProfile {
+        /** No blocking */
+        NONE,
+        /** Block images, fonts and media (network.block.mediaExtensions) */
+        BLOCK_MEDIA,
+        /** Block every host that is not first-party (network.firstPartyDomains) */
+        BLOCK_THIRD_PARTY,
+        /** Only first-party hosts and network.allowList may be requested */
+        ALLOW_LIST
+    }
+
+    /**
+     * Emulated network conditions (Chrome DevTools presets)
+     */
+    public enum ThrottleProfile {
+        NONE(0, -1, -1),
+        FAST_3G(563, 180_000, 84_375),
+        SLOW_3G(2_000, 50_000, 50_000),
+        /** network.throttle.latencyMs, network.throttle.downloadKbps and network.throttle.uploadKbps */
+        CUSTOM(0, -1, -1);
+
+        private final long latencyMillis;
+        private final long downloadBytesPerSecond;
+        private final long uploadBytesPerSecond;
+
+        ThrottleProfile(long latencyMillis, long downloadBytesPerSecond, long uploadBytesPerSecond) {
+            this.latencyMillis = latencyMillis;
+            this.downloadBytesPerSecond = downloadBytesPerSecond;
+            this.uploadBytesPerSecond = uploadBytesPerSecond;
+        }
+    }
+
+    private static final String PAGE_STATS_SCRIPT = """
+            var nav = performance.getEntriesByType('navigation')[0];
+            var resources = performance.getEntriesByType('resource');
+            var bytes = nav ? nav.transferSize : 0;
+            for (var i = 0; i < resources.length; i++) { bytes += resources[i].transferSize || 0; }
+            return [resources.length + (nav ? 1 : 0), bytes];
+            """;
+
+    private static final Map<WebDriver, Shaping> ACTIVE = new ConcurrentHashMap<>();
+    private static final HttpClient SIZE_PROBE = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(TimeoutConfig.SHORT_TIMEOUT))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    private NetworkShaper() { }
+
+    /** Configuration that shapes a session once it is created; part of the key pooled sessions are matched by */
+    private static final List<String> SESSION_KEYS = List.of("network.block.profile", "network.throttle.profile",
+            "network.throttle.latencyMs", "network.throttle.downloadKbps", "network.throttle.uploadKbps",
+            "network.measureSavings", "network.allowList", "network.block.mediaExtensions", "network.firstPartyDomains",
+            "app.baseUrl");
+
+    /**
+     * The session-shaping entries of the configuration, or an empty map when no network profile is active
+     */
+    static Map<String, String> sessionConfig(ConfigSnapshot config) {
+        if (config.getEnum("network.block.profile", BlockingProfile.class, BlockingProfile.NONE) == BlockingProfile.NONE
+                && config.getEnum("network.throttle.profile", ThrottleProfile.class, ThrottleProfile.NONE)
+                        == ThrottleProfile.NONE) {
+            return Map.of();
+        }
+        Map<String, String> entries = new TreeMap<>();
+        for (String key : SESSION_KEYS) {
+            String value = config.get(key);
+            if (value != null && !value.isBlank()) {
+                entries.put(key, value.trim());
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Apply the blocking and throttling profiles of the session-shaping configuration to a new session
+     * @throws IllegalStateException when the blocking profile cannot be enforced on this session
+     */
+    static void apply(WebDriver driver, String browser, ConfigSnapshot config) {
+        BlockingProfile blocking = config.getEnum("network.block.profile", BlockingProfile.class, BlockingProfile.NONE);
+        ThrottleProfile throttle = config.getEnum("network.throttle.profile", ThrottleProfile.class, ThrottleProfile.NONE);
+        if (blocking == BlockingProfile.NONE && throttle == ThrottleProfile.NONE) {
+            return;
+        }
+        if ("firefox".equals(browser)) {
+            Logger.warn("Network profiles need a Chromium browser - ignored for firefox");
+            return;
+        }
+
+        Shaping shaping = new Shaping(blocking, throttle, config);
+        if (blocking != BlockingProfile.NONE) {
+            block(driver, shaping);
+        }
+        if (throttle != ThrottleProfile.NONE) {
+            throttle(driver, throttle, config);
+        }
+        ACTIVE.put(driver, shaping);
+    }
+
+    /**
+     * Whether the configured blocking profile can only be enforced through a DevTools connection
+     */
+    static boolean needsDevTools(ConfigSnapshot config) {
+        BlockingProfile blocking = config.getEnum("network.block.profile", BlockingProfile.class, BlockingProfile.NONE);
+        return blocking == BlockingProfile.BLOCK_THIRD_PARTY || blocking == BlockingProfile.ALLOW_LIST;
+    }
+
+    /**
+     * Stop intercepting for a session that is about to quit
+     */
+    static void forget(WebDriver driver) {
+        Shaping shaping = ACTIVE.remove(driver);
+        if (shaping != null && shaping.interceptor != null) {
+            try {
+                shaping.interceptor.close();
+            } catch (RuntimeException e) {
+                Logger.debug("Error closing network interceptor: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Log requests, bytes transferred and requests (and, when measured, bytes) saved by blocking for the
+     * page just loaded. No-op for sessions without a network profile
+     */
+    public static void reportPage(WebDriver driver, String url) {
+        Shaping shaping = ACTIVE.get(driver);
+        if (shaping == null || !(driver instanceof JavascriptExecutor)) {
+            return;
+        }
+        Object stats = ((JavascriptExecutor) driver).executeScript(PAGE_STATS_SCRIPT);
+        long requests = 0L;
+        long transferred = 0L;
+        if (stats instanceof List && ((List<?>) stats).size() == 2) {
+            requests = ((Number) ((List<?>) stats).get(0)).longValue();
+            transferred = ((Number) ((List<?>) stats).get(1)).longValue();
+        }
+        long blocked = shaping.blockedRequests.getAndSet(0L);
+        List<CompletableFuture<Long>> probes;
+        synchronized (shaping) {
+            probes = shaping.probes.remove(shaping.page);
+            shaping.page++;
+        }
+        long saved = savedBytes(probes);
+
+        OperationMetrics.add("network.requests", requests);
+        OperationMetrics.add("network.transferredBytes", transferred);
+        OperationMetrics.add("network.blockedRequests", blocked);
+        StringBuilder line = new StringBuilder(128)
+                .append("Network [block=").append(shaping.blocking.name().toLowerCase(Locale.ROOT))
+                .append(", throttle=").append(shaping.throttle.name().toLowerCase(Locale.ROOT)).append("] ")
+                .append(url).append(": ").append(requests).append(" requests, ")
+                .append(kilobytes(transferred)).append(" transferred");
+        if (shaping.interceptor != null) {
+            line.append(", ").append(blocked).append(" requests blocked");
+            if (shaping.measureSavings) {
+                OperationMetrics.add("network.savedBytes", saved);
+                line.append(" (~").append(kilobytes(saved)).append(" saved)");
+            }
+        }
+        Logger.info(line.toString());
+    }
+
+    private static void block(WebDriver driver, Shaping shaping) {
+        if (driver instanceof HasDevTools && ((HasDevTools) driver).maybeGetDevTools().isPresent()) {
+            shaping.interceptor = new NetworkInterceptor(driver, (HttpHandler) request -> {
+                URI uri = URI.create(request.getUri());
+                if (!shaping.shouldBlock(uri)) {
+                    return NetworkInterceptor.PROCEED_WITH_REQUEST;
+                }
+                shaping.blockedRequests.incrementAndGet();
+                if (shaping.measureSavings && request.getMethod() == HttpMethod.GET) {
+                    CompletableFuture<Long> size = measureSize(uri);
+                    // Counted for the page loading when the request was blocked, however late the answer comes
+                    synchronized (shaping) {
+                        shaping.probes.computeIfAbsent(shaping.page, page -> new ArrayList<>()).add(size);
+                    }
+                }
+                return new org.openqa.selenium.remote.http.HttpResponse().setStatus(204);
+            });
+            return;
+        }
+        if (shaping.blocking == BlockingProfile.BLOCK_MEDIA && driver instanceof HasCdp) {
+            // No DevTools connection: let the browser match URL patterns itself (blocked requests are not counted)
+            List<String> patterns = shaping.mediaExtensions.stream()
+                    .flatMap(extension -> List.of("*." + extension, "*." + extension + "?*").stream())
+                    .collect(Collectors.toList());
+            ((HasCdp) driver).executeCdpCommand("Network.enable", Map.of());
+            ((HasCdp) driver).executeCdpCommand("Network.setBlockedURLs", Map.of("urls", patterns));
+            return;
+        }
+        throw new IllegalStateException("Blocking profile " + shaping.blocking.name().toLowerCase(Locale.ROOT)
+                + " needs a DevTools connection, which this session could not open - use block_media");
+    }
+
+    private static void throttle(WebDriver driver, ThrottleProfile profile, ConfigSnapshot config) {
+        if (!(driver instanceof HasCdp)) {
+            Logger.warn("Throttling needs a Chromium session - " + profile + " ignored");
+            return;
+        }
+        long latency = profile.latencyMillis;
+        long download = profile.downloadBytesPerSecond;
+        long upload = profile.uploadBytesPerSecond;
+        if (profile == ThrottleProfile.CUSTOM) {
+            latency = config.getLong("network.throttle.latencyMs", 0L);
+            download = kbpsToBytes(config.getLong("network.throttle.downloadKbps", -1L));
+            upload = kbpsToBytes(config.getLong("network.throttle.uploadKbps", -1L));
+        }
+        Map<String, Object> conditions = new HashMap<>();
+        conditions.put("offline", false);
+        conditions.put("latency", latency);
+        conditions.put("downloadThroughput", download);
+        conditions.put("uploadThroughput", upload);
+        ((HasCdp) driver).executeCdpCommand("Network.enable", Map.of());
+        ((HasCdp) driver).executeCdpCommand("Network.emulateNetworkConditions", conditions);
+        Logger.debug("Network throttled to " + profile + " " + conditions);
+    }
+
+    /**
+     * Ask the server for the size of a blocked resource, off the browser and test threads; 0 when unknown
+     */
+    private static CompletableFuture<Long> measureSize(URI uri) {
+        if (!"http".equals(uri.getScheme()) && !"https".equals(uri.getScheme())) {
+            return CompletableFuture.completedFuture(0L);
+        }
+        HttpRequest probe = HttpRequest.newBuilder(uri)
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .timeout(Duration.ofSeconds(TimeoutConfig.SHORT_TIMEOUT))
+                .build();
+        return SIZE_PROBE.sendAsync(probe, HttpResponse.BodyHandlers.discarding())
+                .thenApply(response -> response.headers().firstValueAsLong("Content-Length").orElse(0L))
+                .exceptionally(error -> 0L);
+    }
+
+    /**
+     * Total size of a page's blocked resources; waits up to the probe timeout for answers still in flight
+     */
+    private static long savedBytes(List<CompletableFuture<Long>> probes) {
+        if (probes == null) {
+            return 0L;
+        }
+        try {
+            CompletableFuture.allOf(probes.toArray(new CompletableFuture<?>[0]))
+                    .get(TimeoutConfig.SHORT_TIMEOUT, TimeUnit.SECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Count the answers that arrived
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long total = 0L;
+        for (CompletableFuture<Long> probe : probes) {
+            total += probe.getNow(0L);
+        }
+        return total;
+    }
+
+    private static long kbpsToBytes(long kbps) {
+        return kbps < 0L ? -1L : kbps * 1000L / 8L;
+    }
+
+    private static String kilobytes(long bytes) {
+        return String.format(Locale.ROOT, "%.1f KB", bytes / 1024.0);
+    }
+
+    private static Set<String> csv(String value) {
+        if (value == null || value.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(value.split(","))
+                .map(item -> item.trim().toLowerCase(Locale.ROOT))
+                .filter(item -> !item.isEmpty())
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Profiles and counters of one session
+     */
+    private static final class Shaping {
+        private final BlockingProfile blocking;
+        private final ThrottleProfile throttle;
+        private final boolean measureSavings;
+        private final Set<String> firstPartyDomains;
+        private final Set<String> allowList;
+        private final Set<String> mediaExtensions;
+        private final AtomicLong blockedRequests = new AtomicLong();
+        /** Number of the page being loaded and the size probes of its blocked requests; guarded by this */
+        private long page;
+        private final Map<Long, List<CompletableFuture<Long>>> probes = new HashMap<>();
+        private NetworkInterceptor interceptor;
+
+        Shaping(BlockingProfile blocking, ThrottleProfile throttle, ConfigSnapshot config) {
+            this.blocking = blocking;
+            this.throttle = throttle;
+            this.measureSavings = config.getBoolean("network.measureSavings", false);
+            this.allowList = csv(config.get("network.allowList"));
+            this.mediaExtensions = csv(config.get("network.block.mediaExtensions",
+                    "png,jpg,jpeg,gif,webp,avif,svg,ico,woff,woff2,ttf,otf,mp4,webm,mp3"));
+            Set<String> domains = csv(config.get("network.firstPartyDomains"));
+            if (domains.isEmpty()) {
+                // Default: the application's registrable host (www.example.com -> example.com) plus loopback
+                String host = URI.create(config.get("app.baseUrl", "https://www.vaneck.com")).getHost();
+                domains = Set.of(host.startsWith("www.") ? host.substring(4) : host, "localhost", "127.0.0.1");
+            }
+            this.firstPartyDomains = domains;
+        }
+
+        boolean shouldBlock(URI uri) {
+            if (uri.getHost() == null) {
+                // data:, blob: and similar never leave the browser
+                return false;
+            }
+            String host = uri.getHost().toLowerCase(Locale.ROOT);
+            switch (blocking) {
+                case BLOCK_MEDIA:
+                    String path = uri.getPath() == null ? "" : uri.getPath().toLowerCase(Locale.ROOT);
+                    int dot = path.lastIndexOf('.');
+                    return dot >= 0 && mediaExtensions.contains(path.substring(dot + 1));
+                case BLOCK_THIRD_PARTY:
+                    return !matches(host, firstPartyDomains);
+                case ALLOW_LIST:
+                    return !matches(host, firstPartyDomains) && !matches(host, allowList);
+                case NONE:
+                default:
+                    return false;
+            }
+        }
+
+        private static boolean matches(String host, Set<String> domains) {
+            for (String domain : domains) {
+                if (host.equals(domain) || host.endsWith("." + domain)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openqa.selenium.By;
+
+
+/**
+ * Latency histograms per operation and per operation + locator, plus event counters
+ * (fallbacks, wait timeouts) for the ElementUtil / BasePage hot path.
+ * Recording is lock-free; at suite end publish() writes test-output/metrics/metrics.json and
+ * metrics.prom (Prometheus text format) and adds a slowest-locators table to the report
+ */
+public final class OperationMetrics {
+
+    private static final String METRICS_DIR = "test-output/metrics/";
+    private static final String OTHER_LOCATORS = "(other)";
+
+    private static final boolean ENABLED = ConfigManager.getBoolean("metrics.enabled", true);
+    private static final int MAX_LOCATORS = ConfigManager.getInt("metrics.maxLocators", 1000);
+
+    private static final Map<String, LatencyHistogram> OPERATIONS = new ConcurrentHashMap<>();
+    private static final Map<LocatorKey, LatencyHistogram> LOCATORS = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+
+    private OperationMetrics() { }
+
+    /**
+     * Start time to pass to record()
+     */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Record an operation that started at startNanos
+     */
+    public static void record(String operation, long startNanos) {
+        record(operation, null, startNanos);
+    }
+
+    /**
+     * Record an operation on a locator that started at startNanos
+     */
+    public static void record(String operation, By locator, long startNanos) {
+        if (!ENABLED) {
+            return;
+        }
+        long elapsed = System.nanoTime() - startNanos;
+        OPERATIONS.computeIfAbsent(operation, key -> new LatencyHistogram()).record(elapsed);
+        if (locator != null) {
+            locatorHistogram(operation, locator.toString()).record(elapsed);
+        }
+    }
+
+    /**
+     * Count an event such as "click.jsFallback" or "waitVisible.timeout"
+     */
+    public static void increment(String event) {
+        add(event, 1L);
+    }
+
+    /**
+     * Add an amount to a counter such as "network.transferredBytes"
+     */
+    public static void add(String event, long amount) {
+        if (ENABLED && amount != 0L) {
+            COUNTERS.computeIfAbsent(event, key -> new LongAdder()).add(amount);
+        }
+    }
+
+    private static LatencyHistogram locatorHistogram(String operation, String locator) {
+        LocatorKey key = new LocatorKey(operation, locator);
+        LatencyHistogram histogram = LOCATORS.get(key);
+        if (histogram != null) {
+            return histogram;
+        }
+        if (LOCATORS.size() >= MAX_LOCATORS) {
+            // Keep label cardinality bounded; later locators are aggregated
+            key = new LocatorKey(operation, OTHER_LOCATORS);
+        }
+        return LOCATORS.computeIfAbsent(key, ignored -> new LatencyHistogram());
+    }
+
+    /**
+     * Write the JSON and Prometheus exports and add the slowest locators to the report's system info
+     */
+    public static void publish() {
+        if (!ENABLED || OPERATIONS.isEmpty()) {
+            return;
+        }
+        try {
+            Path directory = Paths.get(METRICS_DIR);
+            Files.createDirectories(directory);
+            Files.writeString(directory.resolve("metrics.json"), toJson(), StandardCharsets.UTF_8);
+            Files.writeString(directory.resolve("metrics.prom"), toPrometheus(), StandardCharsets.UTF_8);
+            Logger.info("Operation metrics written to " + METRICS_DIR);
+        } catch (IOException e) {
+            Logger.error("Failed to write operation metrics", e);
+        }
+
+        List<Map.Entry<LocatorKey, LatencyHistogram>> slowest = slowestLocators(
+                ConfigManager.getInt("metrics.topLocators", 10));
+        String[][] table = new String[slowest.size() + 1][];
+        table[0] = new String[] {"Operation", "Locator", "Count", "Mean ms", "p95 ms", "Max ms"};
+        for (int i = 0; i < slowest.size(); i++) {
+            LocatorKey key = slowest.get(i).getKey();
+            LatencyHistogram histogram = slowest.get(i).getValue();
+            table[i + 1] = new String[] {key.operation, key.locator, String.valueOf(histogram.getCount()),
+                    millis(histogram.getMeanMillis()), millis(histogram.percentileMillis(0.95)),
+                    millis(histogram.getMaxMillis())};
+        }
+        ExtentManager.setSystemInfoTable("Slowest locators", table, 2);
+    }
+
+    /**
+     * Locator histograms with the highest mean latency
+     */
+    static List<Map.Entry<LocatorKey, LatencyHistogram>> slowestLocators(int limit) {
+        List<Map.Entry<LocatorKey, LatencyHistogram>> entries = new ArrayList<>(LOCATORS.entrySet());
+        entries.sort(Comparator.comparingDouble(
+                (Map.Entry<LocatorKey, LatencyHistogram> entry) -> entry.getValue().getMeanMillis()).reversed());
+        return entries.subList(0, Math.min(limit, entries.size()));
+    }
+
+    static String toJson() {
+        StringBuilder json = new StringBuilder(4096).append("{\n  \"operations\": {");
+        appendJsonHistograms(json, new TreeMap<>(OPERATIONS));
+        json.append("\n  },\n  \"locators\": {");
+        Map<String, LatencyHistogram> locators = new TreeMap<>();
+        LOCATORS.forEach((key, histogram) -> locators.put(key.operation + " " + key.locator, histogram));
+        appendJsonHistograms(json, locators);
+        json.append("\n  },\n  \"counters\": {");
+        String separator = "";
+        for (Map.Entry<String, LongAdder> counter : new TreeMap<>(COUNTERS).entrySet()) {
+            json.append(separator).append("\n    ");
+            appendJsonString(json, counter.getKey());
+            json.append(": ").append(counter.getValue().sum());
+            separator = ",";
+        }
+        return json.append("\n  }\n}\n").toString();
+    }
+
+    private static void appendJsonHistograms(StringBuilder json, Map<String, LatencyHistogram> histograms) {
+        String separator = "";
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            json.append(separator).append("\n    ");
+            appendJsonString(json, entry.getKey());
+            json.append(String.format(Locale.ROOT,
+                    ": {\"count\": %d, \"meanMs\": %.2f, \"p50Ms\": %.2f, \"p95Ms\": %.2f, \"p99Ms\": %.2f, \"maxMs\": %.2f}",
+                    histogram.getCount(), histogram.getMeanMillis(), histogram.percentileMillis(0.50),
+                    histogram.percentileMillis(0.95), histogram.percentileMillis(0.99), histogram.getMaxMillis()));
+            separator = ",";
+        }
+    }
+
+    static String toPrometheus() {
+        StringBuilder prom = new StringBuilder(8192);
+        prom.append("# HELP selenium_operation_duration_seconds Latency of framework operations\n")
+                .append("# TYPE selenium_operation_duration_seconds histogram\n");
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(OPERATIONS).entrySet()) {
+            String labels = "operation=\"" + escapeLabel(entry.getKey()) + "\"";
+            LatencyHistogram histogram = entry.getValue();
+            long cumulative = 0L;
+            for (int i = 0; i <= LatencyHistogram.BOUNDS_MILLIS.length; i++) {
+                cumulative += histogram.getBucket(i);
+                String le = i < LatencyHistogram.BOUNDS_MILLIS.length
+                        ? String.valueOf(LatencyHistogram.BOUNDS_MILLIS[i] / 1000.0) : "+Inf";
+                prom.append("selenium_operation_duration_seconds_bucket{").append(labels)
+                        .append(",le=\"").append(le).append("\"} ").append(cumulative).append('\n');
+            }
+            appendSumAndCount(prom, "selenium_operation_duration_seconds", labels, histogram);
+        }
+
+        prom.append("# HELP selenium_locator_duration_seconds Latency of framework operations per locator\n")
+                .append("# TYPE selenium_locator_duration_seconds summary\n");
+        for (Map.Entry<LocatorKey, LatencyHistogram> entry : LOCATORS.entrySet()) {
+            String labels = "operation=\"" + escapeLabel(entry.getKey().operation)
+                    + "\",locator=\"" + escapeLabel(entry.getKey().locator) + "\"";
+            appendSumAndCount(prom, "selenium_locator_duration_seconds", labels, entry.getValue());
+        }
+
+        prom.append("# HELP selenium_operation_events_total Fallbacks, retries and wait timeouts\n")
+                .append("# TYPE selenium_operation_events_total counter\n");
+        for (Map.Entry<String, LongAdder> counter : new TreeMap<>(COUNTERS).entrySet()) {
+            prom.append("selenium_operation_events_total{event=\"").append(escapeLabel(counter.getKey()))
+                    .append("\"} ").append(counter.getValue().sum()).append('\n');
+        }
+        return prom.toString();
+    }
+
+    private static void appendSumAndCount(StringBuilder prom, String name, String labels, LatencyHistogram histogram) {
+        prom.append(name).append("_sum{").append(labels).append("} ")
+                .append(String.format(Locale.ROOT, "%.6f", histogram.getSumMillis() / 1000.0)).append('\n')
+                .append(name).append("_count{").append(labels).append("} ").append(histogram.getCount()).append('\n');
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static void appendJsonString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    private static String millis(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    static final class LocatorKey {
+        final String operation;
+        final String locator;
+
+        LocatorKey(String operation, String locator) {
+            this.operation = operation;
+            this.locator = locator;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof LocatorKey)) {
+                return false;
+            }
+            LocatorKey that = (LocatorKey) other;
+            return operation.equals(that.operation) && locator.equals(that.locator);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * operation.hashCode() + locator.hashCode();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package utils;
+
+import java.util.List;
+
+import org.testng.IAlterSuiteListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ISuiteResult;
+import org.testng.ITestContext;
+import org.testng.ITestResult;
+import org.testng.xml.XmlSuite;
+
+/**
+ * Applies the configured parallel mode (parallel.mode: methods, classes, tests or none)
+ * with a thread count sized at runtime, then logs the speedup actually achieved
+ */
+public class ParallelExecutionListener implements IAlterSuiteListener, ISuiteListener {
+
+    private long suiteStart;
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        XmlSuite.ParallelMode parallelMode = ConfigManager.snapshot()
+                .getEnum("parallel.mode", XmlSuite.ParallelMode.class, XmlSuite.ParallelMode.METHODS);
+
+        for (XmlSuite suite : suites) {
+            String browser = suite.getParameter("browser") != null
+                    ? suite.getParameter("browser")
+                    : DriverProfile.fromConfig().getBrowser();
+            int threads = parallelMode == XmlSuite.ParallelMode.NONE ? 1 : ExecutionSizing.compute(browser);
+            suite.setParallel(parallelMode);
+            suite.setThreadCount(threads);
+            ExecutionSizing.setThreadCount(threads);
+            Logger.info("Suite '" + suite.getName() + "' running with parallel=" + parallelMode
+                    + ", thread-count=" + threads);
+        }
+    }
+
+    @Override
+    public void onStart(ISuite suite) {
+        suiteStart = System.currentTimeMillis();
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        long wallMillis = System.currentTimeMillis() - suiteStart;
+        long serialMillis = 0L;
+        for (ISuiteResult suiteResult : suite.getResults().values()) {
+            ITestContext context = suiteResult.getTestContext();
+            serialMillis += totalMillis(context.getPassedTests().getAllResults())
+                    + totalMillis(context.getFailedTests().getAllResults())
+                    + totalMillis(context.getSkippedTests().getAllResults());
+        }
+        if (wallMillis <= 0L) {
+            return;
+        }
+
+        double speedup = (double) serialMillis / wallMillis;
+        String summary = String.format("parallel=%s threads=%d, summed test time %dms, wall time %dms, speedup %.2fx",
+                suite.getXmlSuite().getParallel(), suite.getXmlSuite().getThreadCount(), serialMillis, wallMillis, speedup);
+        Logger.info("Parallel execution - " + summary);
+        ExtentManager.setSystemInfo("Parallel Execution", summary);
+        // @AfterSuite has already flushed the report; flush again so the summary is included
+        ExtentManager.flushExtentReports();
+    }
+
+    private static long totalMillis(Iterable<ITestResult> results) {
+        long total = 0L;
+        for (ITestResult result : results) {
+            total += result.getEndMillis() - result.getStartMillis();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,329 @@
+package utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+
+
+/**
+ * Warmed browser profile template (profile.template.enabled)
+ * Built once per browser and suite by a session that loads profile.template.warmupPaths, so the HTTP cache,
+ * code cache and service workers are populated. Every new session then starts from its own copy of the
+ * template and never shares a mutable profile. Files are always copied, never hardlinked: the browser opens
+ * cache entries read-write, so a linked file would let one session change the template for all others.
+ * DOMContentLoaded times of the template build (cold) and of later sessions (warm) are compared per page
+ */
+public final class ProfileTemplate {
+
+    /** Single-instance locks the browser leaves in a profile; a copy must not inherit them */
+    private static final Set<String> LOCK_FILES = Set.of(
+            "SingletonLock", "SingletonSocket", "SingletonCookie", "lockfile", "parent.lock", ".parentlock", "lock");
+
+    private static final String PAGE_LOAD_SCRIPT = """
+            var nav = performance.getEntriesByType('navigation')[0];
+            if (!nav || nav.domContentLoadedEventEnd <= 0) { return null; }
+            var resources = performance.getEntriesByType('resource'), cached = 0;
+            for (var i = 0; i < resources.length; i++) {
+              if (resources[i].transferSize === 0 && resources[i].decodedBodySize > 0) { cached++; }
+            }
+            return [nav.domContentLoadedEventEnd, resources.length, cached];
+            """;
+
+    private static final Map<String, Template> TEMPLATES = new ConcurrentHashMap<>();
+    private static final Map<WebDriver, Path> SESSIONS = new ConcurrentHashMap<>();
+    private static final Map<String, PageLoads> PAGE_LOADS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Path> BUILDING = new ThreadLocal<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(ProfileTemplate::deleteTemplates, "profile-template-cleanup"));
+    }
+
+    private ProfileTemplate() { }
+
+    public static boolean isEnabled() {
+        return ConfigManager.getBoolean("profile.template.enabled", false);
+    }
+
+    /**
+     * Profile directory for a new session of the browser, or null to start with an empty profile
+     */
+    static Path newSessionProfile(String browser) {
+        Path building = BUILDING.get();
+        if (building != null) {
+            return building;
+        }
+        if (!isEnabled()) {
+            return null;
+        }
+        Template template = TEMPLATES.computeIfAbsent(browser, Template::new);
+        Path source = template.get();
+        if (source == null) {
+            return null;
+        }
+        try {
+            Path copy = Files.createTempDirectory("selenium-profile-" + browser + "-");
+            copyProfile(source, copy);
+            return copy;
+        } catch (IOException e) {
+            Logger.warn("Failed to copy " + browser + " profile template, starting with an empty profile: "
+                    + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Associate a session with the profile copy it was started with
+     */
+    static void bind(WebDriver driver, Path profile) {
+        if (profile != null && BUILDING.get() == null) {
+            SESSIONS.put(driver, profile);
+        }
+    }
+
+    /**
+     * Delete the profile copy of a session that could not start
+     */
+    static void discard(Path profile) {
+        if (profile != null && BUILDING.get() == null) {
+            deleteQuietly(profile);
+        }
+    }
+
+    /**
+     * Delete the profile copy of a session that has quit
+     */
+    static void forget(WebDriver driver) {
+        Path profile = SESSIONS.remove(driver);
+        if (profile != null) {
+            deleteQuietly(profile);
+        }
+    }
+
+    /**
+     * Record the DOMContentLoaded time and cache hits of the page just loaded (warm for template sessions)
+     */
+    public static void recordPageLoad(WebDriver driver, String url) {
+        if (!isEnabled()) {
+            return;
+        }
+        record(driver, url, SESSIONS.containsKey(driver));
+    }
+
+    private static void record(WebDriver driver, String url, boolean warm) {
+        try {
+            Object raw = ((JavascriptExecutor) driver).executeScript(PAGE_LOAD_SCRIPT);
+            if (!(raw instanceof List) || ((List<?>) raw).size() != 3) {
+                return;
+            }
+            List<?> values = (List<?>) raw;
+            long nanos = TimeUnit.MICROSECONDS.toNanos((long) (((Number) values.get(0)).doubleValue() * 1000.0));
+            PageLoads loads = PAGE_LOADS.computeIfAbsent(pageKey(url), ignored -> new PageLoads());
+            if (warm) {
+                loads.warm.record(nanos);
+                loads.warmResources.add(((Number) values.get(1)).longValue());
+                loads.warmCached.add(((Number) values.get(2)).longValue());
+            } else {
+                loads.cold.record(nanos);
+            }
+        } catch (RuntimeException e) {
+            Logger.debug("Page load timing unavailable for " + url + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Add the cold-vs-warm page load times (DOMContentLoaded) to the report's system info
+     */
+    public static void publish() {
+        if (PAGE_LOADS.isEmpty()) {
+            return;
+        }
+        List<String[]> rows = new ArrayList<>();
+        rows.add(new String[] {"Page", "Cold loads", "Cold DCL ms", "Warm loads", "Warm DCL ms", "Warm p95 ms",
+                "Warm cache hits"});
+        for (Map.Entry<String, PageLoads> entry : new TreeMap<>(PAGE_LOADS).entrySet()) {
+            PageLoads loads = entry.getValue();
+            long warmCount = loads.warm.getCount();
+            rows.add(new String[] {entry.getKey(), String.valueOf(loads.cold.getCount()),
+                    millis(loads.cold.getMeanMillis()), String.valueOf(warmCount), millis(loads.warm.getMeanMillis()),
+                    millis(loads.warm.percentileMillis(0.95)),
+                    warmCount == 0L ? "-" : loads.warmCached.sum() + " / " + loads.warmResources.sum()});
+            Logger.info(String.format(Locale.ROOT, "Page load %s - cold %.1f ms (%d), warm %.1f ms (%d)",
+                    entry.getKey(), loads.cold.getMeanMillis(), loads.cold.getCount(),
+                    loads.warm.getMeanMillis(), warmCount));
+        }
+        ExtentManager.setSystemInfoTable("Page load", rows.toArray(new String[0][]), 1);
+    }
+
+    private static String pageKey(String url) {
+        try {
+            String path = URI.create(url).getPath();
+            return path == null || path.isEmpty() ? "/" : path;
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    private static String millis(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    /**
+     * Build the template: a dedicated session on the template directory loads the warmup pages and quits,
+     * which flushes caches to disk. Loads during the build are the cold baseline
+     */
+    private static Path build(String browser) {
+        long start = System.nanoTime();
+        Path directory;
+        try {
+            directory = Files.createTempDirectory("selenium-profile-template-" + browser + "-");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        BUILDING.set(directory);
+        WebDriver driver = null;
+        try {
+            driver = WebDriverFactory.createDriver(new DriverProfile(browser,
+                    ConfigManager.getBoolean("headless", false), PageLoadStrategy.NORMAL));
+            for (String path : warmupPaths()) {
+                String url = FixtureServer.appUrl(path);
+                driver.navigate().to(url);
+                WaitEngine.current().scriptReturnsTrue(driver, "return document.readyState == 'complete'",
+                        TimeoutConfig.PAGE_LOAD_TIMEOUT);
+                record(driver, url, false);
+            }
+        } finally {
+            BUILDING.remove();
+            if (driver != null) {
+                WebDriverFactory.quit(driver);
+            }
+        }
+
+        for (String lock : LOCK_FILES) {
+            deleteQuietly(directory.resolve(lock));
+        }
+        Logger.info("Built " + browser + " profile template in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms at " + directory);
+        return directory;
+    }
+
+    private static List<String> warmupPaths() {
+        String configured = ConfigManager.get("profile.template.warmupPaths", "");
+        List<String> paths = new ArrayList<>();
+        if (configured.isBlank()) {
+            for (String key : List.of("app.fundExplorerPath", "app.homePath")) {
+                String path = ConfigManager.get(key);
+                if (path != null && !path.isBlank()) {
+                    paths.add(path.trim());
+                }
+            }
+        } else {
+            for (String path : configured.split(",")) {
+                if (!path.isBlank()) {
+                    paths.add(path.trim());
+                }
+            }
+        }
+        return paths;
+    }
+
+    private static void copyProfile(Path source, Path target) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (LOCK_FILES.contains(file.getFileName().toString()) || !attrs.isRegularFile()) {
+                    return FileVisitResult.CONTINUE;
+                }
+                Files.copy(file, target.resolve(source.relativize(file).toString()), StandardCopyOption.COPY_ATTRIBUTES);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void deleteTemplates() {
+        for (Template template : TEMPLATES.values()) {
+            if (template.directory != null) {
+                deleteQuietly(template.directory);
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (var files = Files.walk(path)) {
+            files.sorted((a, b) -> b.getNameCount() - a.getNameCount()).forEach(file -> {
+                try {
+                    Files.delete(file);
+                } catch (IOException e) {
+                    Logger.debug("Could not delete " + file + ": " + e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            Logger.debug("Could not delete profile " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Template of one browser, built by the first session that needs it; a failed build is not retried
+     */
+    private static final class Template {
+        private final String browser;
+        private volatile Path directory;
+        private volatile boolean built;
+
+        Template(String browser) {
+            this.browser = browser;
+        }
+
+        Path get() {
+            if (!built) {
+                synchronized (this) {
+                    if (!built) {
+                        try {
+                            directory = build(browser);
+                        } catch (RuntimeException e) {
+                            Logger.warn("Failed to build " + browser + " profile template, sessions start with an "
+                                    + "empty profile: " + e.getMessage());
+                        }
+                        built = true;
+                    }
+                }
+            }
+            return directory;
+        }
+    }
+
+    private static final class PageLoads {
+        final LatencyHistogram cold = new LatencyHistogram();
+        final LatencyHistogram warm = new LatencyHistogram();
+        final LongAdder warmResources = new LongAdder();
+        final LongAdder warmCached = new LongAdder();
+    }
+}
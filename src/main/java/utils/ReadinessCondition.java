@@ -0,0 +1,151 @@
+package utils;
+
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+
+/**
+ * A signal that a page is ready for interaction, evaluated in the browser
+ * Page objects declare the conditions that matter to them (a key element, no pending fetch/XHR,
+ * an application flag) so navigation does not have to wait for every resource to finish loading.
+ * All conditions of a page are checked together in one script call per poll
+ */
+public final class ReadinessCondition {
+
+    /**
+     * Counts in-flight fetch/XHR requests; installed before page scripts run where the browser allows it
+     */
+    static final String NETWORK_TRACKER_SCRIPT = """
+            (function () {
+              if (window.__pomNetwork) { return; }
+              var state = window.__pomNetwork = { pending: 0, lastActivity: Date.now() };
+              function start() { state.pending++; state.lastActivity = Date.now(); }
+              function end() { state.pending = Math.max(0, state.pending - 1); state.lastActivity = Date.now(); }
+              if (window.fetch) {
+                var originalFetch = window.fetch;
+                window.fetch = function () {
+                  start();
+                  return originalFetch.apply(this, arguments).then(
+                    function (response) { end(); return response; },
+                    function (error) { end(); throw error; });
+                };
+              }
+              var originalSend = XMLHttpRequest.prototype.send;
+              XMLHttpRequest.prototype.send = function () {
+                start();
+                this.addEventListener('loadend', end, { once: true });
+                return originalSend.apply(this, arguments);
+              };
+            })();
+            """;
+
+    private final String expression;
+    private final String description;
+
+    private ReadinessCondition(String expression, String description) {
+        this.expression = expression;
+        this.description = description;
+    }
+
+    /**
+     * DOMContentLoaded has fired (what the EAGER page load strategy already waits for)
+     */
+    public static ReadinessCondition documentInteractive() {
+        return new ReadinessCondition("document.readyState !== 'loading'", "document interactive");
+    }
+
+    /**
+     * The load event has fired - every subresource finished; the old default
+     */
+    public static ReadinessCondition documentComplete() {
+        return new ReadinessCondition("document.readyState === 'complete'", "document complete");
+    }
+
+    /**
+     * An element matching the locator is rendered (CSS and XPath locators only)
+     */
+    public static ReadinessCondition elementVisible(By locator) {
+        String[] selector = BrowserLocator.toSelector(locator);
+        if (selector == null) {
+            throw new IllegalArgumentException("Readiness conditions need a CSS or XPath locator: " + locator);
+        }
+        String lookup = "css".equals(selector[0])
+                ? "document.querySelector(" + jsString(selector[1]) + ")"
+                : "document.evaluate(" + jsString(selector[1])
+                        + ", document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue";
+        return new ReadinessCondition("(function () { var e = " + lookup
+                + "; return !!e && e.getClientRects().length > 0; })()", "element visible " + locator);
+    }
+
+    /**
+     * No fetch/XHR request has been in flight for quietMillis
+     */
+    public static ReadinessCondition networkIdle(long quietMillis) {
+        return new ReadinessCondition("(function () { var n = window.__pomNetwork;"
+                + " if (!n) { " + NETWORK_TRACKER_SCRIPT.replace('\n', ' ') + " return false; }"
+                + " return n.pending === 0 && Date.now() - n.lastActivity >= " + quietMillis + "; })()",
+                "network idle for " + quietMillis + "ms");
+    }
+
+    /**
+     * A JavaScript expression set by the application evaluates truthy, e.g. "window.appReady === true"
+     */
+    public static ReadinessCondition jsExpression(String expression) {
+        return new ReadinessCondition("(" + expression + ")", "script " + expression);
+    }
+
+    /**
+     * Make networkIdle() see requests started before the first check by installing the tracker into
+     * every new document of a Chromium session; elsewhere the tracker is installed on the first check
+     */
+    static void installNetworkTracker(WebDriver driver) {
+        if (!(driver instanceof HasCdp)) {
+            return;
+        }
+        try {
+            ((HasCdp) driver).executeCdpCommand("Page.addScriptToEvaluateOnNewDocument",
+                    Map.of("source", NETWORK_TRACKER_SCRIPT));
+        } catch (RuntimeException e) {
+            Logger.debug("Network tracker not installed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Script returning one boolean per condition
+     */
+    static String script(List<ReadinessCondition> conditions) {
+        StringBuilder script = new StringBuilder("return [");
+        for (int i = 0; i < conditions.size(); i++) {
+            if (i > 0) {
+                script.append(", ");
+            }
+            script.append("(function () { try { return !!(").append(conditions.get(i).expression)
+                    .append("); } catch (e) { return false; } })()");
+        }
+        return script.append("];").toString();
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+
+    private static String jsString(String value) {
+        StringBuilder literal = new StringBuilder(value.length() + 2).append('\'');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\'' || c == '\\') {
+                literal.append('\\');
+            }
+            literal.append(c == '\n' ? ' ' : c);
+        }
+        return literal.append('\'').toString();
+    }
+}
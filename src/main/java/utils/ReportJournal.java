@@ -0,0 +1,172 @@
+package utils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only, on-disk journal of report events (one tab-separated event per line)
+ * Test threads only format a line and publish it into a lock-free ring buffer; a daemon writer appends
+ * batches to the file, so a crash loses at most the batch in flight and nothing is held on the heap
+ */
+final class ReportJournal {
+
+    /** Journal event types; field layout after the timestamp, type and test id is noted per type */
+    enum Event {
+        /** name, description, category, thread */
+        START,
+        /** status, label colour (may be empty), message */
+        LOG,
+        /** screenshot path, title */
+        MEDIA,
+        /** no fields */
+        END,
+        /** key, value (test id is 0) */
+        INFO
+    }
+
+    private static final int BATCH_SIZE = 256;
+
+    private final Path file;
+    private final LogRingBuffer<String> buffer;
+    private final AtomicLong testIds = new AtomicLong();
+    private final AtomicLong appended = new AtomicLong();
+    private volatile long written;
+    private final Thread writer;
+
+    private ReportJournal(Path file, int bufferSize) {
+        this.file = file;
+        this.buffer = new LogRingBuffer<>(bufferSize);
+        this.writer = new Thread(this::runWriter, "report-journal");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Open (or append to) a journal file and start its writer thread
+     */
+    static ReportJournal open(Path file, int bufferSize) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        ReportJournal journal = new ReportJournal(file, bufferSize);
+        journal.writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(journal::flush, "report-journal-flush"));
+        return journal;
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Allocate an id for a new test
+     */
+    long nextTestId() {
+        return testIds.incrementAndGet();
+    }
+
+    /**
+     * Publish one event; blocks only while the buffer is full
+     */
+    void append(Event event, long testId, String... fields) {
+        StringBuilder line = new StringBuilder(64);
+        line.append(System.currentTimeMillis()).append('\t').append(event.name()).append('\t').append(testId);
+        for (String field : fields) {
+            line.append('\t');
+            escape(line, field);
+        }
+        String entry = line.append('\n').toString();
+        while (!buffer.offer(entry)) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        appended.incrementAndGet();
+    }
+
+    /**
+     * Block until every event appended before this call has been written to the file
+     */
+    void flush() {
+        long target = appended.get();
+        while (written < target && writer.isAlive()) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    private void runWriter() {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            while (true) {
+                int drained = buffer.drain(entry -> {
+                    try {
+                        out.write(entry);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }, BATCH_SIZE);
+                if (drained == 0) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                    continue;
+                }
+                out.flush();
+                written += drained;
+            }
+        } catch (IOException | IllegalStateException e) {
+            Logger.error("Report journal writer stopped - " + file, e);
+        }
+    }
+
+    private static void escape(StringBuilder line, String value) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                default:
+                    line.append(c);
+            }
+        }
+    }
+
+    /**
+     * Split a journal line into its fields, reversing the escaping applied on write
+     */
+    static String[] parse(String line) {
+        List<String> fields = new ArrayList<>(8);
+        StringBuilder field = new StringBuilder();
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\t') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\\' && i + 1 < line.length()) {
+                char next = line.charAt(++i);
+                field.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+}
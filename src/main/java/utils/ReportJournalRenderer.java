@@ -0,0 +1,207 @@
+package utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.markuputils.ExtentColor;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import com.aventstack.extentreports.model.Log;
+
+/**
+ * Renders ExtentReports HTML from a report journal
+ * The journal is streamed: only tests still in progress and the current page of finished tests are
+ * held in memory, and every report.render.testsPerFile tests go to a separate HTML file.
+ * Can also be run standalone to recover the report of a crashed run: {@code ReportJournalRenderer <journal> [report.html]}
+ */
+public final class ReportJournalRenderer {
+
+    private static final int TIMESTAMP = 0;
+    private static final int TYPE = 1;
+    private static final int TEST_ID = 2;
+    private static final int FIELDS = 3;
+
+    private ReportJournalRenderer() { }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: ReportJournalRenderer <journal> [report.html]");
+            return;
+        }
+        String reportPath = args.length > 1 ? args[1] : args[0].replaceAll("\\.tsv$", "") + ".html";
+        render(Paths.get(args[0]), reportPath, ConfigManager.getInt("report.render.testsPerFile", 500));
+    }
+
+    /**
+     * Render the journal into reportPath (plus _part2, _part3... when there are more than testsPerFile tests)
+     */
+    public static void render(Path journal, String reportPath, int testsPerFile) {
+        Map<String, String> systemInfo = readSystemInfo(journal);
+        Map<String, List<String[]>> running = new LinkedHashMap<>();
+        List<List<String[]>> page = new ArrayList<>();
+        int pageNumber = 1;
+        int skipped = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] event = ReportJournal.parse(line);
+                ReportJournal.Event type = parseEvent(event);
+                if (type == null) {
+                    // Torn or partial line, usually the last one of a crashed run
+                    skipped++;
+                    continue;
+                }
+                String testId = event[TEST_ID];
+                switch (type) {
+                    case START:
+                        running.computeIfAbsent(testId, id -> new ArrayList<>()).add(event);
+                        break;
+                    case LOG:
+                    case MEDIA:
+                        List<String[]> events = running.get(testId);
+                        if (events != null) {
+                            events.add(event);
+                        }
+                        break;
+                    case END:
+                        List<String[]> finished = running.remove(testId);
+                        if (finished != null) {
+                            finished.add(event);
+                            page.add(finished);
+                        }
+                        break;
+                    default:
+                        break;
+                }
+                if (page.size() >= testsPerFile) {
+                    writePage(page, systemInfo, pagePath(reportPath, pageNumber++));
+                    page.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read report journal " + journal, e);
+        }
+
+        // Tests without an END event were still running when the journal stopped
+        page.addAll(running.values());
+        writePage(page, systemInfo, pagePath(reportPath, pageNumber));
+        if (skipped > 0) {
+            Logger.warn("Skipped " + skipped + " unreadable line(s) of report journal " + journal);
+        }
+    }
+
+    /**
+     * Event type of a journal line, or null when the line is torn or malformed; checks every field
+     * the renderer converts so rendering cannot fail on it
+     */
+    private static ReportJournal.Event parseEvent(String[] event) {
+        if (event.length <= TEST_ID) {
+            return null;
+        }
+        try {
+            Long.parseLong(event[TIMESTAMP]);
+            Long.parseLong(event[TEST_ID]);
+            ReportJournal.Event type = ReportJournal.Event.valueOf(event[TYPE]);
+            if (type == ReportJournal.Event.LOG) {
+                Status.valueOf(field(event, 0));
+                if (!field(event, 1).isEmpty()) {
+                    ExtentColor.valueOf(field(event, 1));
+                }
+            }
+            return type;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, String> readSystemInfo(Path journal) {
+        Map<String, String> systemInfo = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.contains("\tINFO\t")) {
+                    String[] event = ReportJournal.parse(line);
+                    if (event.length > FIELDS + 1) {
+                        systemInfo.put(event[FIELDS], event[FIELDS + 1]);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read report journal " + journal, e);
+        }
+        return systemInfo;
+    }
+
+    private static String pagePath(String reportPath, int pageNumber) {
+        if (pageNumber == 1) {
+            return reportPath;
+        }
+        return reportPath.replaceAll("\\.html$", "") + "_part" + pageNumber + ".html";
+    }
+
+    private static void writePage(List<List<String[]>> tests, Map<String, String> systemInfo, String path) {
+        ExtentReports extent = ExtentManager.newExtentReports(path);
+        systemInfo.forEach(extent::setSystemInfo);
+        for (List<String[]> events : tests) {
+            renderTest(extent, events);
+        }
+        extent.flush();
+    }
+
+    private static void renderTest(ExtentReports extent, List<String[]> events) {
+        String[] start = events.get(0);
+        ExtentTest test = extent.createTest(field(start, 0), field(start, 1));
+        if (!field(start, 2).isEmpty()) {
+            test.assignCategory(field(start, 2));
+        }
+        test.getModel().setStartTime(timestamp(start));
+
+        String[] last = start;
+        for (String[] event : events.subList(1, events.size())) {
+            switch (ReportJournal.Event.valueOf(event[TYPE])) {
+                case LOG:
+                    Status status = Status.valueOf(field(event, 0));
+                    String color = field(event, 1);
+                    if (color.isEmpty()) {
+                        test.log(status, field(event, 2));
+                    } else {
+                        test.log(status, MarkupHelper.createLabel(field(event, 2), ExtentColor.valueOf(color)));
+                    }
+                    List<Log> logs = test.getModel().getLogs();
+                    logs.get(logs.size() - 1).setTimestamp(timestamp(event));
+                    break;
+                case MEDIA:
+                    test.addScreenCaptureFromPath(field(event, 0), field(event, 1));
+                    break;
+                default:
+                    break;
+            }
+            last = event;
+        }
+        if (!ReportJournal.Event.END.name().equals(last[TYPE])) {
+            test.log(Status.WARNING, "Test did not finish - the journal ends before its END event");
+        }
+        test.getModel().setEndTime(timestamp(last));
+    }
+
+    private static String field(String[] event, int index) {
+        return FIELDS + index < event.length ? event[FIELDS + index] : "";
+    }
+
+    private static Date timestamp(String[] event) {
+        return new Date(Long.parseLong(event[TIMESTAMP]));
+    }
+}
@@ -0,0 +1,191 @@
+package utils;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Writes screenshots in the background
+ * Callers hand over the captured PNG bytes and immediately get the final path to link in the report.
+ * A bounded writer pool optionally downscales (screenshot.maxWidth) or re-encodes (screenshot.format=jpg)
+ * the image and writes it with NIO; identical images are stored once and share a path.
+ * When the queue (screenshot.queueSize) is full the calling thread writes the image itself
+ */
+public final class ScreenshotWriter {
+
+    private static final String FORMAT = ConfigManager.get("screenshot.format", "png").toLowerCase(Locale.ROOT);
+    private static final int MAX_WIDTH = ConfigManager.getInt("screenshot.maxWidth", 0);
+    private static final float JPEG_QUALITY = (float) ConfigManager.getDouble("screenshot.jpegQuality", 0.8);
+
+    private static final Map<String, String> PATH_BY_HASH = new ConcurrentHashMap<>();
+    private static final AtomicLong SUBMITTED = new AtomicLong();
+    private static final AtomicLong COMPLETED = new AtomicLong();
+    private static final ThreadPoolExecutor WRITER = createWriter();
+
+    private ScreenshotWriter() { }
+
+    /**
+     * Queue a PNG screenshot for writing
+     * @param baseName file name without extension
+     * @return path the screenshot will be written to (an existing path when the same image was already saved)
+     */
+    public static String submit(byte[] png, String baseName) {
+        String hash = sha256(png);
+        String path = ExtentManager.getScreenshotDir() + baseName + "." + extension();
+        String existing = PATH_BY_HASH.putIfAbsent(hash, path);
+        if (existing != null) {
+            Logger.debug("Screenshot identical to " + existing + " - not written again");
+            return existing;
+        }
+        SUBMITTED.incrementAndGet();
+        WRITER.execute(() -> {
+            try {
+                if (!write(png, Paths.get(path))) {
+                    // Later duplicates must not link to a file that was never written
+                    PATH_BY_HASH.remove(hash, path);
+                }
+            } finally {
+                COMPLETED.incrementAndGet();
+            }
+        });
+        return path;
+    }
+
+    /**
+     * Wait until every queued screenshot has been written
+     */
+    public static void flush() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TimeoutConfig.LONG_TIMEOUT);
+        long target = SUBMITTED.get();
+        while (COMPLETED.get() < target && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static ThreadPoolExecutor createWriter() {
+        int threads = ConfigManager.getInt("screenshot.writerThreads", 1);
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(ConfigManager.getInt("screenshot.queueSize", 32)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "screenshot-writer-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        Runtime.getRuntime().addShutdownHook(new Thread(ScreenshotWriter::flush, "screenshot-writer-flush"));
+        return executor;
+    }
+
+    /**
+     * @return false when the screenshot could not be written
+     */
+    private static boolean write(byte[] png, Path target) {
+        try {
+            byte[] output = transform(png);
+            Files.createDirectories(target.toAbsolutePath().getParent());
+            // Write to a temp file and move it in place so the report never links a partial image
+            Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+            Files.write(temp, output);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            Logger.error("Failed to write screenshot " + target, e);
+            return false;
+        }
+    }
+
+    /**
+     * Downscale and re-encode as configured; PNG at full size is written as captured
+     */
+    private static byte[] transform(byte[] png) throws IOException {
+        boolean jpeg = "jpg".equals(extension());
+        if (!jpeg && MAX_WIDTH <= 0) {
+            return png;
+        }
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        if (image == null) {
+            return png;
+        }
+        if (MAX_WIDTH > 0 && image.getWidth() > MAX_WIDTH) {
+            image = scale(image, MAX_WIDTH, jpeg);
+        } else if (jpeg) {
+            // JPEG has no alpha channel
+            image = scale(image, image.getWidth(), true);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(png.length / 2);
+        if (!jpeg) {
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        }
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        ImageWriter writer = writers.next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width, boolean opaque) {
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+        BufferedImage scaled = new BufferedImage(width, height,
+                opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private static String extension() {
+        return "jpg".equals(FORMAT) || "jpeg".equals(FORMAT) ? "jpg" : "png";
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,572 @@
+package utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.bidi.Command;
+import org.openqa.selenium.bidi.HasBiDi;
+import org.openqa.selenium.bidi.browsingcontext.BrowsingContext;
+import org.openqa.selenium.bidi.browsingcontext.CreateContextParameters;
+import org.openqa.selenium.bidi.module.Browser;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.support.decorators.Decorated;
+import org.openqa.selenium.support.decorators.DefaultDecorated;
+import org.openqa.selenium.support.decorators.WebDriverDecorator;
+
+/**
+ * Runs several tests in one browser process (driver.multiplex.enabled)
+ * Every test gets its own isolated context - a CDP browser context on Chromium, a BiDi user context on
+ * Firefox - so cookies, storage and cache are never shared, and a WebDriver view bound to that context's
+ * window. The view takes the browser's lock and switches to its window before each command, so commands
+ * of different tests interleave but never overlap. Browsers that cannot create isolated contexts fall back
+ * to one session per test. Frame focus is not kept while other tests run, and async scripts hold the
+ * browser for their duration - prefer wait.mode=polling in this mode.
+ * Browser memory (PSS) is sampled whenever a test leaves and compared per test with the dedicated-session
+ * baseline that an unmultiplexed run records with driver.multiplex.recordBaseline
+ */
+public final class SessionMultiplexer {
+
+    private static final double MB = 1024.0 * 1024.0;
+
+    private final int contextsPerBrowser;
+    private final List<Host> hosts = new CopyOnWriteArrayList<>();
+    private final ReentrantLock hostsLock = new ReentrantLock();
+    /** Browsers being started; guarded by hostsLock */
+    private final List<Launch> launches = new ArrayList<>();
+    private final Map<WebDriver, View> views = new ConcurrentHashMap<>();
+    /** Browser memory by browser name and number of tests sharing the browser */
+    private final Map<String, Map<Integer, MemorySamples>> memoryByContexts = new ConcurrentHashMap<>();
+
+    /** Memory of dedicated one-test sessions by browser name, while recording the baseline */
+    private static final Map<String, MemorySamples> DEDICATED = new ConcurrentHashMap<>();
+
+    public SessionMultiplexer(int contextsPerBrowser) {
+        this.contextsPerBrowser = Math.max(1, contextsPerBrowser);
+    }
+
+    public static boolean isEnabled() {
+        return ConfigManager.getBoolean("driver.multiplex.enabled", false);
+    }
+
+    /**
+     * A view on a new isolated context, or null when the browser cannot isolate contexts
+     */
+    public WebDriver acquire(DriverProfile profile) {
+        Host host = reserve(profile);
+        if (host == null) {
+            return null;
+        }
+        try {
+            return new View(host, host.openContext()).decorateView(host.driver);
+        } catch (RuntimeException e) {
+            Logger.warn("Failed to open an isolated context in " + host.profile + " - one session per test: "
+                    + e.getMessage());
+            host.broken = true;
+            leave(host);
+            return null;
+        }
+    }
+
+    /**
+     * Close the view's context; the browser stays up for the next test
+     */
+    public void release(WebDriver view) {
+        View owner = views.get(view);
+        if (owner == null) {
+            return;
+        }
+        owner.host.lock.lock();
+        try {
+            // Probe the browser itself while holding it, so the probe's time budget is not spent waiting
+            // for other tests' commands; process memory is looked up by the browser's driver, not the view
+            if (owner.host.activateQuietly(owner.context.handle)
+                    && !BrowserHealthMonitor.isFitForReuse(owner.host.driver, view)) {
+                owner.host.broken = true;
+            }
+            sampleMemory(owner.host);
+            owner.host.closeContext(owner.context);
+        } catch (RuntimeException e) {
+            Logger.warn("Failed to close multiplexed context, discarding its browser: " + e.getMessage());
+            owner.host.broken = true;
+        } finally {
+            owner.host.lock.unlock();
+            views.remove(view);
+            BrowserStateCache.forget(view);
+            BrowserHealthMonitor.forget(view);
+            BrowserProcessMemory.forget(view);
+            leave(owner.host);
+        }
+    }
+
+    /**
+     * A test left the browser; a broken browser is quit once its last test left
+     */
+    private void leave(Host host) {
+        if (host.active.decrementAndGet() == 0 && host.broken) {
+            hosts.remove(host);
+            host.quit();
+        }
+    }
+
+    /**
+     * Quit every browser
+     */
+    public void shutdown() {
+        for (Host host : hosts) {
+            host.quit();
+        }
+        hosts.clear();
+    }
+
+    /**
+     * Add browser memory per test, and the saving against a dedicated session per test, to the report's
+     * system info
+     */
+    public void publish() {
+        if (memoryByContexts.isEmpty()) {
+            return;
+        }
+        Map<String, Long> baseline = loadBaseline();
+        List<String[]> rows = new ArrayList<>();
+        rows.add(new String[] {"Browser", "Tests per browser", "Samples", "Browser PSS MB", "PSS per test MB",
+                "Saving per test vs dedicated session"});
+        for (Map.Entry<String, Map<Integer, MemorySamples>> browser : new TreeMap<>(memoryByContexts).entrySet()) {
+            Long dedicatedBytes = baseline.get(browser.getKey());
+            for (Map.Entry<Integer, MemorySamples> entry : new TreeMap<>(browser.getValue()).entrySet()) {
+                double browserMb = entry.getValue().meanMb();
+                double perTestMb = browserMb / entry.getKey();
+                String saving = "-";
+                if (dedicatedBytes != null && dedicatedBytes > 0L) {
+                    double dedicatedMb = dedicatedBytes / MB;
+                    saving = String.format(Locale.ROOT, "%.0f%% of %.0f MB", 100.0 * (dedicatedMb - perTestMb) / dedicatedMb,
+                            dedicatedMb);
+                }
+                rows.add(new String[] {browser.getKey(), String.valueOf(entry.getKey()),
+                        String.valueOf(entry.getValue().count.sum()), mb(browserMb), mb(perTestMb), saving});
+                Logger.info(String.format(Locale.ROOT, "Multiplexed %s with %d test(s): %.0f MB, %.0f MB per test, saving %s",
+                        browser.getKey(), entry.getKey(), browserMb, perTestMb, saving));
+            }
+            if (dedicatedBytes == null) {
+                Logger.info("No dedicated-session memory baseline for " + browser.getKey()
+                        + " - run once unmultiplexed with driver.multiplex.recordBaseline=true to record it");
+            }
+        }
+        ExtentManager.setSystemInfoTable("Multiplexed browser memory", rows.toArray(new String[0][]), 2);
+    }
+
+    public static boolean isRecordingBaseline() {
+        return !isEnabled() && ConfigManager.getBoolean("driver.multiplex.recordBaseline", false);
+    }
+
+    /**
+     * Sample a dedicated session as its test ends, while recording the per-test memory baseline
+     */
+    public static void sampleDedicated(WebDriver driver, String browser) {
+        long bytes = BrowserProcessMemory.proportionalBytes(driver);
+        if (bytes > 0L) {
+            MemorySamples samples = DEDICATED.computeIfAbsent(browser, ignored -> new MemorySamples());
+            samples.count.increment();
+            samples.bytes.add(bytes);
+        }
+    }
+
+    /**
+     * Store the mean memory of the sampled dedicated sessions per browser in driver.multiplex.baselineFile
+     */
+    public static void saveBaseline() {
+        if (DEDICATED.isEmpty()) {
+            return;
+        }
+        Path file = baselineFile();
+        Properties properties = new Properties();
+        // Browsers not sampled in this run keep their recorded baseline
+        loadBaseline().forEach((browser, bytes) -> properties.setProperty(browser, bytes.toString()));
+        DEDICATED.forEach((browser, samples) -> properties.setProperty(browser,
+                Long.toString(samples.bytes.sum() / samples.count.sum())));
+        try {
+            if (file.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+            }
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                properties.store(out, "Browser PSS in bytes of a dedicated session at the end of a test");
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Logger.info("Recorded dedicated-session memory baseline in " + file);
+        } catch (IOException e) {
+            Logger.warn("Unable to write memory baseline " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static Path baselineFile() {
+        return Paths.get(ConfigManager.get("driver.multiplex.baselineFile",
+                "test-output/history/browser-memory.properties"));
+    }
+
+    private static Map<String, Long> loadBaseline() {
+        Map<String, Long> baseline = new HashMap<>();
+        Path file = baselineFile();
+        if (!Files.isRegularFile(file)) {
+            return baseline;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            Logger.warn("Unable to read memory baseline " + file + ": " + e.getMessage());
+            return baseline;
+        }
+        for (String browser : properties.stringPropertyNames()) {
+            try {
+                baseline.put(browser, Long.parseLong(properties.getProperty(browser).trim()));
+            } catch (NumberFormatException e) {
+                Logger.warn("Ignoring invalid memory baseline for " + browser + " in " + file);
+            }
+        }
+        return baseline;
+    }
+
+    /**
+     * A place in a running browser, or in one being started; starts a browser when there is neither
+     */
+    private Host reserve(DriverProfile profile) {
+        Launch launch = null;
+        boolean starter = false;
+        hostsLock.lock();
+        try {
+            for (Host host : hosts) {
+                if (host.profile.equals(profile) && !host.broken && host.active.get() < contextsPerBrowser) {
+                    host.active.incrementAndGet();
+                    return host;
+                }
+            }
+            for (Launch pending : launches) {
+                if (pending.profile.equals(profile) && pending.tests < contextsPerBrowser) {
+                    pending.tests++;
+                    launch = pending;
+                    break;
+                }
+            }
+            if (launch == null) {
+                launch = new Launch(profile);
+                launches.add(launch);
+                starter = true;
+            }
+        } finally {
+            hostsLock.unlock();
+        }
+        if (starter) {
+            start(launch);
+        }
+        try {
+            return launch.host.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Start a browser without holding hostsLock, so tests on running browsers and other launches do not
+     * wait for it, and hand it to every test that reserved a place in it meanwhile
+     */
+    private void start(Launch launch) {
+        Host host;
+        try {
+            host = new Host(launch.profile, WebDriverFactory.createDriver(launch.profile));
+        } catch (RuntimeException e) {
+            hostsLock.lock();
+            try {
+                launches.remove(launch);
+            } finally {
+                hostsLock.unlock();
+            }
+            launch.host.completeExceptionally(e);
+            throw e;
+        }
+        boolean isolates = host.canIsolate();
+        hostsLock.lock();
+        try {
+            launches.remove(launch);
+            if (isolates) {
+                host.active.set(launch.tests);
+                hosts.add(host);
+            }
+        } finally {
+            hostsLock.unlock();
+        }
+        if (!isolates) {
+            Logger.warn("Browser " + launch.profile + " cannot create isolated contexts - one session per test");
+            host.quit();
+            launch.host.complete(null);
+            return;
+        }
+        Logger.info("Started multiplexed browser " + launch.profile + " for up to " + contextsPerBrowser + " tests");
+        launch.host.complete(host);
+    }
+
+    private void sampleMemory(Host host) {
+        long bytes = BrowserProcessMemory.proportionalBytes(host.driver);
+        if (bytes > 0L) {
+            MemorySamples samples = memoryByContexts
+                    .computeIfAbsent(host.profile.getBrowser(), ignored -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(host.active.get(), ignored -> new MemorySamples());
+            samples.count.increment();
+            samples.bytes.add(bytes);
+        }
+    }
+
+    private static String mb(double value) {
+        return String.format(Locale.ROOT, "%.0f", value);
+    }
+
+    /**
+     * One browser process shared by several tests
+     */
+    private static final class Host {
+        final DriverProfile profile;
+        final WebDriver driver;
+        final ReentrantLock lock = new ReentrantLock();
+        final AtomicInteger active = new AtomicInteger();
+        /** Window the session is currently switched to */
+        String currentHandle;
+        volatile boolean broken;
+
+        Host(DriverProfile profile, WebDriver driver) {
+            this.profile = profile;
+            this.driver = driver;
+            // The session's initial window belongs to no test
+            this.currentHandle = driver.getWindowHandle();
+        }
+
+        boolean canIsolate() {
+            return driver instanceof HasCdp || "firefox".equals(profile.getBrowser());
+        }
+
+        Context openContext() {
+            lock.lock();
+            try {
+                if (driver instanceof HasCdp) {
+                    HasCdp cdp = (HasCdp) driver;
+                    String browserContextId = String.valueOf(cdp.executeCdpCommand("Target.createBrowserContext",
+                            Map.of("disposeOnDetach", false)).get("browserContextId"));
+                    // chromedriver window handles are DevTools target ids
+                    String targetId = String.valueOf(cdp.executeCdpCommand("Target.createTarget",
+                            Map.of("url", "about:blank", "browserContextId", browserContextId, "newWindow", true))
+                            .get("targetId"));
+                    return new Context(browserContextId, targetId);
+                }
+                String userContext = new Browser(driver).createUserContext();
+                BrowsingContext window = new BrowsingContext(driver,
+                        new CreateContextParameters(WindowType.WINDOW).userContext(userContext));
+                return new Context(userContext, window.getId());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Dispose the context with every window and its storage; called with the lock held
+         */
+        void closeContext(Context context) {
+            if (driver instanceof HasCdp) {
+                ((HasCdp) driver).executeCdpCommand("Target.disposeBrowserContext",
+                        Map.of("browserContextId", context.id));
+            } else {
+                new Browser(driver).removeUserContext(context.id);
+            }
+            if (context.windows.contains(currentHandle)) {
+                currentHandle = null;
+            }
+        }
+
+        /**
+         * Top-level windows of a context as the browser reports them, in window handle order; includes
+         * popups the test has not switched to yet. Called with the lock held
+         */
+        Set<String> windowsOf(Context context) {
+            Set<String> inContext = new HashSet<>();
+            if (driver instanceof HasCdp) {
+                Object targets = ((HasCdp) driver).executeCdpCommand("Target.getTargets", Map.of()).get("targetInfos");
+                for (Object entry : (List<?>) targets) {
+                    Map<?, ?> target = (Map<?, ?>) entry;
+                    if ("page".equals(target.get("type")) && context.id.equals(target.get("browserContextId"))) {
+                        inContext.add(String.valueOf(target.get("targetId")));
+                    }
+                }
+            } else {
+                // Firefox window handles are BiDi browsing context ids
+                Map<?, ?> tree = ((HasBiDi) driver).getBiDi().send(new Command<Map<?, ?>>("browsingContext.getTree",
+                        Map.of("maxDepth", 0), input -> input.read(Map.class)));
+                for (Object entry : (List<?>) tree.get("contexts")) {
+                    Map<?, ?> window = (Map<?, ?>) entry;
+                    if (context.id.equals(window.get("userContext"))) {
+                        inContext.add(String.valueOf(window.get("context")));
+                    }
+                }
+            }
+            Set<String> windows = new LinkedHashSet<>();
+            for (String handle : driver.getWindowHandles()) {
+                if (inContext.contains(handle)) {
+                    windows.add(handle);
+                }
+            }
+            context.windows.addAll(windows);
+            return windows;
+        }
+
+        void activate(String handle) {
+            if (!handle.equals(currentHandle)) {
+                driver.switchTo().window(handle);
+                currentHandle = handle;
+            }
+        }
+
+        /**
+         * Switch to a test's window for the health probe; false when the test already closed it
+         */
+        boolean activateQuietly(String handle) {
+            try {
+                activate(handle);
+                return true;
+            } catch (RuntimeException e) {
+                Logger.debug("Window of the released test is gone, skipping the health probe: " + e.getMessage());
+                return false;
+            }
+        }
+
+        void quit() {
+            WebDriverFactory.quit(driver);
+        }
+    }
+
+    /**
+     * An isolated context and the windows a test opened in it
+     */
+    private static final class Context {
+        final String id;
+        final Set<String> windows = ConcurrentHashMap.newKeySet();
+        volatile String handle;
+
+        Context(String id, String handle) {
+            this.id = id;
+            this.handle = handle;
+            this.windows.add(handle);
+        }
+    }
+
+    /**
+     * Decorator that runs every call of one test on its own window, holding the browser lock
+     */
+    private final class View extends WebDriverDecorator<WebDriver> {
+
+        final Host host;
+        final Context context;
+        private WebDriver proxy;
+
+        View(Host host, Context context) {
+            this.host = host;
+            this.context = context;
+        }
+
+        WebDriver decorateView(WebDriver driver) {
+            proxy = decorate(driver);
+            views.put(proxy, this);
+            return proxy;
+        }
+
+        /**
+         * Views share one driver but are distinct sessions in every per-driver map, so the proxy
+         * compares by identity instead of delegating equals/hashCode to the shared driver
+         */
+        @Override
+        public Decorated<WebDriver> createDecorated(WebDriver driver) {
+            return new DefaultDecorated<>(driver, this) {
+                @Override
+                public boolean equals(Object other) {
+                    return other == this || (other != null && other == proxy);
+                }
+
+                @Override
+                public int hashCode() {
+                    return System.identityHashCode(this);
+                }
+            };
+        }
+
+        @Override
+        public Object call(Decorated<?> target, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (target.getOriginal() == host.driver && "quit".equals(name)) {
+                // The browser belongs to every test on it; quitting a view releases only its context
+                release(proxy);
+                return null;
+            }
+            host.lock.lock();
+            try {
+                host.activate(context.handle);
+                if (target.getOriginal() == host.driver && "getWindowHandles".equals(name)) {
+                    return host.windowsOf(context);
+                }
+                Object result = super.call(target, method, args);
+                if (target.getOriginal() instanceof WebDriver.TargetLocator
+                        && ("window".equals(name) || "newWindow".equals(name))) {
+                    // The test moved to another window of its context
+                    context.handle = host.driver.getWindowHandle();
+                    context.windows.add(context.handle);
+                    host.currentHandle = context.handle;
+                }
+                return result;
+            } finally {
+                host.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * A browser being started and the number of tests that reserved a place in it; tests is guarded by hostsLock
+     */
+    private static final class Launch {
+        final DriverProfile profile;
+        final CompletableFuture<Host> host = new CompletableFuture<>();
+        int tests = 1;
+
+        Launch(DriverProfile profile) {
+            this.profile = profile;
+        }
+    }
+
+    private static final class MemorySamples {
+        final LongAdder count = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+
+        double meanMb() {
+            long samples = count.sum();
+            return samples == 0L ? 0.0 : bytes.sum() / (double) samples / MB;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package utils;
+
+import java.net.URI;
+import java.net.URL;
+import java.util.Map;
+import java.util.Optional;
+
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.devtools.CdpEndpointFinder;
+import org.openqa.selenium.devtools.CdpInfo;
+import org.openqa.selenium.devtools.CdpVersionFinder;
+import org.openqa.selenium.devtools.Connection;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.devtools.noop.NoOpCdpInfo;
+import org.openqa.selenium.remote.CommandInfo;
+import org.openqa.selenium.remote.HttpCommandExecutor;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpMethod;
+
+/**
+ * Chromium session opened against an already running, shared driver service
+ * Unlike ChromeDriver/EdgeDriver, quitting it ends the session but leaves the service process up.
+ * DevTools connects to the debugger address the driver reports, as ChromiumDriver does, so request
+ * interception works the same as on a dedicated session
+ */
+public class SharedServiceDriver extends RemoteWebDriver implements HasCdp, HasDevTools {
+
+    private static final String EXECUTE_CDP = "executeCdpCommand";
+
+    private final Optional<Connection> connection;
+    private final Optional<DevTools> devTools;
+
+    /**
+     * @param serviceUrl URL of the running driver service
+     * @param cdpPath vendor-specific CDP endpoint, e.g. session/:sessionId/goog/cdp/execute
+     * @param capabilities browser options for the new session
+     */
+    public SharedServiceDriver(URL serviceUrl, String cdpPath, Capabilities capabilities) {
+        super(new HttpCommandExecutor(Map.of(EXECUTE_CDP, new CommandInfo(cdpPath, HttpMethod.POST)), serviceUrl),
+                capabilities);
+        Capabilities reported = getCapabilities();
+        String optionsKey = "MicrosoftEdge".equals(reported.getBrowserName()) ? "ms:edgeOptions" : "goog:chromeOptions";
+        this.connection = connect(CdpEndpointFinder.getReportedUri(optionsKey, reported));
+        CdpInfo cdpInfo = new CdpVersionFinder().match(reported.getBrowserVersion()).orElseGet(() -> {
+            Logger.debug("No CDP implementation matches browser version " + reported.getBrowserVersion());
+            return new NoOpCdpInfo();
+        });
+        this.devTools = connection.map(conn -> new DevTools(cdpInfo::getDomains, conn));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> executeCdpCommand(String commandName, Map<String, Object> parameters) {
+        Object value = execute(EXECUTE_CDP, Map.of("cmd", commandName, "params", parameters)).getValue();
+        return value instanceof Map ? (Map<String, Object>) value : Map.of();
+    }
+
+    @Override
+    public Optional<DevTools> maybeGetDevTools() {
+        return devTools;
+    }
+
+    @Override
+    public void quit() {
+        connection.ifPresent(Connection::close);
+        super.quit();
+    }
+
+    /**
+     * DevTools websocket of the browser behind debuggerAddress, or empty when it cannot be reached
+     */
+    private static Optional<Connection> connect(Optional<URI> debuggerAddress) {
+        if (debuggerAddress.isEmpty()) {
+            return Optional.empty();
+        }
+        HttpClient client = CdpEndpointFinder.getHttpClient(HttpClient.Factory.createDefault(), debuggerAddress.get());
+        try {
+            Optional<URI> endpoint = CdpEndpointFinder.getCdpEndPoint(client);
+            if (endpoint.isPresent()) {
+                return Optional.of(new Connection(client, endpoint.get().toString()));
+            }
+        } catch (RuntimeException e) {
+            Logger.warn("Unable to connect DevTools to " + debuggerAddress.get() + ": " + e.getMessage());
+        }
+        client.close();
+        return Optional.empty();
+    }
+}
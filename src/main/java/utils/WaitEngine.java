@@ -0,0 +1,389 @@
+package utils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.ScriptTimeoutException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Reusable per-thread wait engine with an adaptive polling schedule
+ * Polls tightly at first (wait.polling.initialMs) and backs off by wait.polling.backoff up to wait.polling.maxMs,
+ * recording how many polls and WebDriver round trips every wait took.
+ * In OBSERVER mode element waits run inside the page instead, falling back to polling when unavailable
+ */
+public final class WaitEngine {
+
+    private static final ThreadLocal<WaitEngine> CURRENT = ThreadLocal.withInitial(WaitEngine::new);
+
+    private static final Object OBSERVER_UNAVAILABLE = new Object();
+    private static final long SCRIPT_TIMEOUT_MARGIN_SECONDS = 5L;
+
+    private static final String OBSERVER_SCRIPT = """
+            var strategy = arguments[0], value = arguments[1], condition = arguments[2], timeoutMs = arguments[3];
+            var done = arguments[arguments.length - 1];
+            function find() {
+              if (strategy === 'xpath') {
+                return document.evaluate(value, document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;
+              }
+              return document.querySelector(value);
+            }
+            function visible(el) {
+              if (!el.isConnected) { return false; }
+              if (el.checkVisibility) { return el.checkVisibility({ checkOpacity: true, checkVisibilityCSS: true }); }
+              var style = getComputedStyle(el);
+              return style.display !== 'none' && style.visibility !== 'hidden' && el.getClientRects().length > 0;
+            }
+            function check() {
+              var el = find();
+              var shown = !!el && visible(el);
+              if (condition === 'invisible') { return shown ? null : { ok: true }; }
+              if (!shown || (condition === 'clickable' && el.disabled)) { return null; }
+              return { ok: true, element: el };
+            }
+            var first = check();
+            if (first) { done(first); return; }
+            var finished = false, frame = 0, safety, timer, observer;
+            function finish(result) {
+              if (finished) { return; }
+              finished = true;
+              observer.disconnect();
+              clearTimeout(timer);
+              clearInterval(safety);
+              if (frame) { cancelAnimationFrame(frame); }
+              done(result);
+            }
+            function evaluate() {
+              frame = 0;
+              var result = check();
+              if (result) { finish(result); }
+            }
+            observer = new MutationObserver(function () {
+              if (!frame) { frame = requestAnimationFrame(evaluate); }
+            });
+            observer.observe(document.documentElement, { childList: true, subtree: true, attributes: true });
+            // Style-only changes (transitions, stylesheet loads) do not mutate the DOM; re-check occasionally
+            safety = setInterval(evaluate, 250);
+            timer = setTimeout(function () { finish({ ok: false }); }, timeoutMs);
+            """;
+
+    private static final AtomicLong TOTAL_WAITS = new AtomicLong();
+    private static final AtomicLong TOTAL_POLLS = new AtomicLong();
+    private static final AtomicLong TOTAL_ROUND_TRIPS = new AtomicLong();
+    private static final AtomicLong TOTAL_TIMEOUTS = new AtomicLong();
+
+    private int polls;
+    private int roundTrips;
+    private long lastElapsedNanos;
+
+    private WaitEngine() { }
+
+    /**
+     * wait.mode of the configuration bound to this thread, read per wait so @ConfigOverride applies
+     */
+    private static WaitMode defaultMode() {
+        return ConfigManager.snapshot().getEnum("wait.mode", WaitMode.class, WaitMode.POLLING);
+    }
+
+    /**
+     * Wait engine bound to the current thread
+     */
+    public static WaitEngine current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Wait until the element is present and displayed, using the configured wait.mode
+     */
+    public WebElement visible(WebDriver driver, By locator, long timeoutSeconds) {
+        return visible(driver, locator, timeoutSeconds, defaultMode());
+    }
+
+    public WebElement visible(WebDriver driver, By locator, long timeoutSeconds, WaitMode mode) {
+        long start = System.nanoTime();
+        if (mode == WaitMode.OBSERVER) {
+            Object element = observe(driver, locator, "visible", timeoutSeconds);
+            if (element != OBSERVER_UNAVAILABLE) {
+                return (WebElement) element;
+            }
+        }
+        return until(driver, d -> {
+            WebElement element = find(d, locator);
+            return element != null && isDisplayed(element) ? element : null;
+        }, remaining(timeoutSeconds, start), "visibility of element located by " + locator, true);
+    }
+
+    /**
+     * Wait until the element is displayed and enabled, using the configured wait.mode
+     */
+    public WebElement clickable(WebDriver driver, By locator, long timeoutSeconds) {
+        return clickable(driver, locator, timeoutSeconds, defaultMode());
+    }
+
+    public WebElement clickable(WebDriver driver, By locator, long timeoutSeconds, WaitMode mode) {
+        long start = System.nanoTime();
+        if (mode == WaitMode.OBSERVER) {
+            Object element = observe(driver, locator, "clickable", timeoutSeconds);
+            if (element != OBSERVER_UNAVAILABLE) {
+                return (WebElement) element;
+            }
+        }
+        return until(driver, d -> {
+            WebElement element = find(d, locator);
+            if (element == null || !isDisplayed(element)) {
+                return null;
+            }
+            roundTrips++;
+            return element.isEnabled() ? element : null;
+        }, remaining(timeoutSeconds, start), "element to be clickable: " + locator, true);
+    }
+
+    /**
+     * Wait until no displayed element matches the locator, using the configured wait.mode
+     */
+    public boolean invisible(WebDriver driver, By locator, long timeoutSeconds) {
+        return invisible(driver, locator, timeoutSeconds, defaultMode());
+    }
+
+    public boolean invisible(WebDriver driver, By locator, long timeoutSeconds, WaitMode mode) {
+        long start = System.nanoTime();
+        if (mode == WaitMode.OBSERVER && observe(driver, locator, "invisible", timeoutSeconds) != OBSERVER_UNAVAILABLE) {
+            return true;
+        }
+        return until(driver, d -> {
+            WebElement element = find(d, locator);
+            return element == null || !isDisplayed(element) ? Boolean.TRUE : null;
+        }, remaining(timeoutSeconds, start), "element to no longer be visible: " + locator, true);
+    }
+
+    /**
+     * Wait until the script returns true
+     */
+    public boolean scriptReturnsTrue(WebDriver driver, String script, long timeoutSeconds) {
+        return until(driver, d -> {
+            roundTrips++;
+            return Boolean.TRUE.equals(((JavascriptExecutor) d).executeScript(script)) ? Boolean.TRUE : null;
+        }, timeoutSeconds, "script to return true: " + script);
+    }
+
+    /**
+     * Check once, without waiting, whether a displayed element matches the locator
+     */
+    public boolean displayedNow(WebDriver driver, By locator) {
+        polls = 1;
+        roundTrips = 0;
+        WebElement element = find(driver, locator);
+        return element != null && isDisplayed(element);
+    }
+
+    /**
+     * Poll for the whole duration and return true if no displayed element matched the locator,
+     * or false as soon as one shows up
+     */
+    public boolean absentFor(WebDriver driver, By locator, Duration duration) {
+        try {
+            until(driver, d -> {
+                WebElement element = find(d, locator);
+                return element != null && isDisplayed(element) ? Boolean.TRUE : null;
+            }, duration, "element to appear: " + locator, false);
+            return false;
+        } catch (TimeoutException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Poll the condition until it returns a non-null, non-false value or the timeout elapses.
+     * Conditions built outside this class count one round trip per poll
+     */
+    public <T> T until(WebDriver driver, Function<WebDriver, T> condition, long timeoutSeconds, String description) {
+        return until(driver, condition, Duration.ofSeconds(timeoutSeconds), description, true);
+    }
+
+    private <T> T until(WebDriver driver, Function<WebDriver, T> condition, Duration timeout, String description,
+            boolean countTimeout) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        // Polling schedule of the configuration bound to this thread
+        ConfigSnapshot config = ConfigManager.snapshot();
+        long interval = Math.max(1L, config.getLong("wait.polling.initialMs", 50L));
+        long maxPollMillis = Math.max(interval, config.getLong("wait.polling.maxMs", 500L));
+        double backoff = Math.max(1.0, config.getDouble("wait.polling.backoff", 1.5));
+        polls = 0;
+        roundTrips = 0;
+        RuntimeException lastError = null;
+
+        try {
+            while (true) {
+                polls++;
+                int tripsBefore = roundTrips;
+                try {
+                    T value = condition.apply(driver);
+                    if (roundTrips == tripsBefore) {
+                        roundTrips++;
+                    }
+                    if (value != null && !Boolean.FALSE.equals(value)) {
+                        return value;
+                    }
+                } catch (NoSuchElementException | StaleElementReferenceException e) {
+                    lastError = e;
+                }
+
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis <= 0L) {
+                    if (countTimeout) {
+                        TOTAL_TIMEOUTS.incrementAndGet();
+                    }
+                    throw new TimeoutException(String.format(
+                            "Expected condition failed: waiting for %s (tried for %d ms with %d polls, %d round trips)",
+                            description, timeout.toMillis(), polls, roundTrips), lastError);
+                }
+                sleep(Math.min(interval, remainingMillis));
+                interval = Math.min(maxPollMillis, (long) (interval * backoff));
+            }
+        } finally {
+            lastElapsedNanos = System.nanoTime() - start;
+            TOTAL_WAITS.incrementAndGet();
+            TOTAL_POLLS.addAndGet(polls);
+            TOTAL_ROUND_TRIPS.addAndGet(roundTrips);
+        }
+    }
+
+    /**
+     * What is left of the timeout - a polling fallback after a failed observer wait keeps the original deadline
+     */
+    private static Duration remaining(long timeoutSeconds, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        return Duration.ofNanos(Math.max(0L, TimeUnit.SECONDS.toNanos(timeoutSeconds) - elapsed));
+    }
+
+    /**
+     * Wait inside the page with one async script: a MutationObserver schedules a check on the next
+     * animation frame whenever the DOM changes, and the script resolves as soon as the condition holds.
+     * Returns the element (null for "invisible"), or OBSERVER_UNAVAILABLE when the caller should fall back to polling
+     */
+    private Object observe(WebDriver driver, By locator, String condition, long timeoutSeconds) {
+        String[] selector = BrowserLocator.toSelector(locator);
+        if (selector == null || !(driver instanceof JavascriptExecutor)) {
+            return OBSERVER_UNAVAILABLE;
+        }
+
+        long start = System.nanoTime();
+        polls = 1;
+        roundTrips = 0;
+        Duration previousScriptTimeout = null;
+        try {
+            previousScriptTimeout = raiseScriptTimeout(driver, timeoutSeconds);
+            roundTrips++;
+            Object result = ((JavascriptExecutor) driver).executeAsyncScript(OBSERVER_SCRIPT,
+                    selector[0], selector[1], condition, TimeUnit.SECONDS.toMillis(timeoutSeconds));
+            if (!(result instanceof Map) || !Boolean.TRUE.equals(((Map<?, ?>) result).get("ok"))) {
+                TOTAL_TIMEOUTS.incrementAndGet();
+                throw new TimeoutException(String.format(
+                        "Expected condition failed: waiting in browser for %s of %s (tried for %d second(s))",
+                        condition, locator, timeoutSeconds));
+            }
+            return ((Map<?, ?>) result).get("element");
+        } catch (JavascriptException | ScriptTimeoutException | UnsupportedCommandException e) {
+            // Navigation mid-wait, CSP or a driver without async script support - poll instead
+            Logger.debug("Observer wait unavailable for " + locator + ", falling back to polling: " + e.getMessage());
+            return OBSERVER_UNAVAILABLE;
+        } finally {
+            restoreScriptTimeout(driver, previousScriptTimeout);
+            lastElapsedNanos = System.nanoTime() - start;
+            TOTAL_WAITS.incrementAndGet();
+            TOTAL_POLLS.addAndGet(polls);
+            TOTAL_ROUND_TRIPS.addAndGet(roundTrips);
+        }
+    }
+
+    /**
+     * Raise the session script timeout so the async wait is not cut short
+     * @return the previous timeout to restore afterwards, or null when it was already long enough
+     */
+    private Duration raiseScriptTimeout(WebDriver driver, long timeoutSeconds) {
+        Duration required = Duration.ofSeconds(timeoutSeconds + SCRIPT_TIMEOUT_MARGIN_SECONDS);
+        WebDriver.Timeouts timeouts = driver.manage().timeouts();
+        roundTrips++;
+        Duration previous = timeouts.getScriptTimeout();
+        if (previous == null || previous.compareTo(required) >= 0) {
+            // null is no script timeout at all
+            return null;
+        }
+        roundTrips++;
+        timeouts.scriptTimeout(required);
+        return previous;
+    }
+
+    private void restoreScriptTimeout(WebDriver driver, Duration previous) {
+        if (previous == null) {
+            return;
+        }
+        try {
+            roundTrips++;
+            driver.manage().timeouts().scriptTimeout(previous);
+        } catch (RuntimeException e) {
+            Logger.debug("Could not restore script timeout: " + e.getMessage());
+        }
+    }
+
+    public int getLastPolls() {
+        return polls;
+    }
+
+    public int getLastRoundTrips() {
+        return roundTrips;
+    }
+
+    public long getLastElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastElapsedNanos);
+    }
+
+    /**
+     * Totals across all threads since startup
+     */
+    public static String summary() {
+        long waits = TOTAL_WAITS.get();
+        return String.format("waits=%d polls=%d roundTrips=%d timeouts=%d avgPolls=%.1f",
+                waits, TOTAL_POLLS.get(), TOTAL_ROUND_TRIPS.get(), TOTAL_TIMEOUTS.get(),
+                waits == 0L ? 0.0 : (double) TOTAL_POLLS.get() / waits);
+    }
+
+    private WebElement find(WebDriver driver, By locator) {
+        roundTrips++;
+        try {
+            return driver.findElement(locator);
+        } catch (NoSuchElementException e) {
+            return null;
+        }
+    }
+
+    private boolean isDisplayed(WebElement element) {
+        roundTrips++;
+        try {
+            return element.isDisplayed();
+        } catch (StaleElementReferenceException e) {
+            return false;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException("Interrupted while waiting", e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package utils;
+
+/**
+ * How element waits are evaluated
+ */
+public enum WaitMode {
+    /** Client-side polling from the JVM, one or more WebDriver round trips per poll */
+    POLLING,
+    /** One async script waiting in the page on DOM mutations and animation frames */
+    OBSERVER
+}
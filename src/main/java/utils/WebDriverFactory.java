@@ -1,57 +1,289 @@
 package utils;
 
-import org.openqa.selenium.PageLoadStrategy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.openqa.selenium.Capabilities;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.chrome.ChromeDriverService;
 import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.edge.EdgeDriver;
+import org.openqa.selenium.edge.EdgeDriverService;
 import org.openqa.selenium.edge.EdgeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.firefox.GeckoDriverService;
+import org.openqa.selenium.remote.service.DriverService;
 
 public final class WebDriverFactory {
+    private static final ThreadLocal<DriverStartupTimings> LAST_TIMINGS = new ThreadLocal<>();
+    private static final String CHROME_CDP_PATH = "session/:sessionId/goog/cdp/execute";
+    private static final String EDGE_CDP_PATH = "session/:sessionId/ms/cdp/execute";
+    private static final Map<String, DriverService> SHARED_SERVICES = new ConcurrentHashMap<>();
+    private static final AtomicInteger SERVICE_SLOT = new AtomicInteger();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(WebDriverFactory::stopSharedServices, "driver-service-shutdown"));
+    }
+
     private WebDriverFactory() { }
 
+    /**
+     * Quit a session and drop every piece of per-session state the framework keeps for it
+     * The only teardown path for sessions: interceptors are closed while the session is still up,
+     * everything else is forgotten even when quit fails. Errors are logged, not thrown
+     */
+    public static void quit(WebDriver driver) {
+        NetworkShaper.forget(driver);
+        BrowserStateCache.forget(driver);
+        try {
+            driver.quit();
+        } catch (RuntimeException e) {
+            Logger.warn("Error quitting WebDriver: " + e.getMessage());
+        } finally {
+            BrowserHealthMonitor.forget(driver);
+            BrowserProcessMemory.forget(driver);
+            ProfileTemplate.forget(driver);
+            DriverPool.forget(driver);
+        }
+    }
+
     public static WebDriver createDriver() {
-        String browser = ConfigManager.get("browser", "chrome").toLowerCase();
-        boolean headless = Boolean.parseBoolean(ConfigManager.get("headless", "false"));
+        return createDriver(DriverProfile.fromConfig());
+    }
 
-        switch (browser) {
+    public static WebDriver createDriver(DriverProfile profile) {
+        switch (profile.getBrowser()) {
             case "edge":
-                return createEdge(headless);
+                return createEdge(profile);
             case "firefox":
-                return createFirefox(headless);
+                return createFirefox(profile);
             case "chrome":
             default:
-                return createChrome(headless);
+                return createChrome(profile);
         }
     }
 
-    private static WebDriver createChrome(boolean headless) {
+    /**
+     * Phase timings of the last driver created on this thread, or null if none
+     */
+    public static DriverStartupTimings getLastStartupTimings() {
+        return LAST_TIMINGS.get();
+    }
+
+    private static WebDriver createChrome(DriverProfile profile) {
         ChromeOptions options = new ChromeOptions();
-        options.setPageLoadStrategy(PageLoadStrategy.NORMAL);
+        options.setPageLoadStrategy(profile.getPageLoadStrategy());
         options.addArguments("--start-maximized");
-        if (headless) {
+        if (profile.isHeadless()) {
             options.addArguments("--headless=new", "--disable-gpu", "--window-size=1920,1080");
         }
-        return new ChromeDriver(options);
+        Path userProfile = ProfileTemplate.newSessionProfile("chrome");
+        if (userProfile != null) {
+            options.addArguments("--user-data-dir=" + userProfile);
+        }
+        return withProfile(userProfile, () -> startSession(profile, options, options::setBinary,
+                ChromeDriverService::createDefaultService, service -> new ChromeDriver(service, options), CHROME_CDP_PATH));
     }
 
-    private static WebDriver createEdge(boolean headless) {
+    private static WebDriver createEdge(DriverProfile profile) {
         EdgeOptions options = new EdgeOptions();
-        options.setPageLoadStrategy(PageLoadStrategy.NORMAL);
-        if (headless) {
+        options.setPageLoadStrategy(profile.getPageLoadStrategy());
+        if (profile.isHeadless()) {
             options.addArguments("--headless=new", "--disable-gpu", "--window-size=1920,1080");
         }
-        return new EdgeDriver(options);
+        Path userProfile = ProfileTemplate.newSessionProfile("edge");
+        if (userProfile != null) {
+            options.addArguments("--user-data-dir=" + userProfile);
+        }
+        return withProfile(userProfile, () -> startSession(profile, options, options::setBinary,
+                EdgeDriverService::createDefaultService, service -> new EdgeDriver(service, options), EDGE_CDP_PATH));
     }
 
-    private static WebDriver createFirefox(boolean headless) {
+    private static WebDriver createFirefox(DriverProfile profile) {
         FirefoxOptions options = new FirefoxOptions();
-        options.setPageLoadStrategy(PageLoadStrategy.NORMAL);
-        if (headless) {
+        options.setPageLoadStrategy(profile.getPageLoadStrategy());
+        if (profile.isHeadless()) {
             options.addArguments("--headless", "--width=1920", "--height=1080");
         }
-        return new FirefoxDriver(options);
+        if (SessionMultiplexer.isEnabled() || DriverManager.isPoolEnabled()) {
+            // Multiplexed Firefox sessions isolate tests in BiDi user contexts; pooled ones are reset through BiDi
+            options.setCapability("webSocketUrl", true);
+        }
+        Path userProfile = ProfileTemplate.newSessionProfile("firefox");
+        if (userProfile != null) {
+            options.addArguments("-profile", userProfile.toString());
+        }
+        // geckodriver serves a single session per process, so Firefox always gets a dedicated service
+        return withProfile(userProfile, () -> startSession(profile, options, options::setBinary,
+                GeckoDriverService::createDefaultService, service -> new FirefoxDriver(service, options), null));
+    }
+
+    /**
+     * Start a session on a copied profile template (or none), deleting the copy if the session fails to start
+     */
+    private static WebDriver withProfile(Path profile, Supplier<WebDriver> session) {
+        WebDriver driver;
+        try {
+            driver = session.get();
+        } catch (RuntimeException e) {
+            ProfileTemplate.discard(profile);
+            throw e;
+        }
+        ProfileTemplate.bind(driver, profile);
+        return driver;
+    }
+
+    /**
+     * Stop every shared driver service; sessions still open against them stop working
+     */
+    public static void stopSharedServices() {
+        SHARED_SERVICES.values().forEach(service -> {
+            try {
+                service.stop();
+            } catch (Exception e) {
+                Logger.warn("Error stopping shared driver service: " + e.getMessage());
+            }
+        });
+        SHARED_SERVICES.clear();
+    }
+
+    /**
+     * Start a session in explicit phases so each one can be timed:
+     * resolve driver/browser binaries (cached on disk), spawn or reuse the driver service, then open the session.
+     * When cdpPath is given and sharing is enabled the session runs on a long-lived shared service.
+     * A session that fails to start with cached binaries is retried once after the cache entry is re-resolved
+     */
+    private static <S extends DriverService> WebDriver startSession(DriverProfile profile, Capabilities options,
+            Consumer<String> browserBinary, Supplier<S> serviceFactory, Function<S, WebDriver> dedicatedSession,
+            String cdpPath) {
+        String browser = profile.getBrowser();
+        ConfigSnapshot network = new ConfigSnapshot(profile.getNetworkConfig());
+        boolean shared = cdpPath != null && ConfigManager.getBoolean("driver.service.shared", true);
+        String staleDriver = null;
+        long start;
+        long resolved;
+        long spawned;
+        DriverBinaryCache.Binaries binaries;
+        WebDriver driver;
+        while (true) {
+            start = System.nanoTime();
+            S service = serviceFactory.get();
+            binaries = DriverBinaryCache.resolve(browser, service, options);
+            if (staleDriver != null && !staleDriver.equals(binaries.getDriverPath())) {
+                retireSharedServices(browser, staleDriver);
+            }
+            service.setExecutable(binaries.getDriverPath());
+            if (binaries.getBrowserPath() != null) {
+                browserBinary.accept(binaries.getBrowserPath());
+            }
+            resolved = System.nanoTime();
+
+            try {
+                DriverService running = shared ? sharedService(browser, service) : startService(browser, service);
+                spawned = System.nanoTime();
+                try {
+                    driver = shared ? new SharedServiceDriver(running.getUrl(), cdpPath, options)
+                            : dedicatedSession.apply(service);
+                } catch (RuntimeException e) {
+                    if (!shared) {
+                        service.stop();
+                    }
+                    throw e;
+                }
+                break;
+            } catch (RuntimeException e) {
+                if (staleDriver != null || !binaries.isCached()) {
+                    throw e;
+                }
+                // The browser may have been updated since the binaries were cached; resolve them again once
+                Logger.warn("Could not start " + browser + " with cached binaries (" + e.getMessage()
+                        + ") - resolving them again");
+                DriverBinaryCache.invalidate(browser, options);
+                staleDriver = binaries.getDriverPath();
+            }
+        }
+
+        if (shared && NetworkShaper.needsDevTools(network) && ((HasDevTools) driver).maybeGetDevTools().isEmpty()) {
+            // Request blocking cannot be enforced without DevTools; a dedicated service gives a full ChromiumDriver
+            Logger.warn("No DevTools connection on the shared " + browser + " service - starting a dedicated session");
+            quit(driver);
+            S dedicated = serviceFactory.get();
+            dedicated.setExecutable(binaries.getDriverPath());
+            startService(browser, dedicated);
+            driver = dedicatedSession.apply(dedicated);
+        }
+        long ready = System.nanoTime();
+
+        DriverStartupTimings timings = new DriverStartupTimings(browser,
+                toMillis(resolved - start), toMillis(spawned - resolved), toMillis(ready - spawned));
+        LAST_TIMINGS.set(timings);
+        Logger.debug("WebDriver " + timings);
+
+        try {
+            NetworkShaper.apply(driver, browser, network);
+        } catch (RuntimeException e) {
+            // The session cannot run with the configured network profile; do not leave its browser behind
+            quit(driver);
+            throw e;
+        }
+        ReadinessCondition.installNetworkTracker(driver);
+        return driver;
+    }
+
+    /**
+     * One of driver.service.instances long-lived services for the browser, started on first use.
+     * The candidate service is only started when its slot is empty or the previous process died
+     */
+    private static DriverService sharedService(String browser, DriverService candidate) {
+        int instances = Math.max(1, ConfigManager.getInt("driver.service.instances", 1));
+        String key = browser + "#" + Math.floorMod(SERVICE_SLOT.getAndIncrement(), instances);
+        return SHARED_SERVICES.compute(key, (slot, existing) -> {
+            if (existing != null && existing.isRunning()) {
+                return existing;
+            }
+            Logger.info("Starting shared " + browser + " driver service " + slot);
+            return startService(browser, candidate);
+        });
+    }
+
+    /**
+     * Stop and forget shared services of the browser still running a driver binary that was just re-resolved
+     */
+    private static void retireSharedServices(String browser, String driverPath) {
+        SHARED_SERVICES.entrySet().removeIf(entry -> {
+            if (!entry.getKey().startsWith(browser + "#") || !driverPath.equals(entry.getValue().getExecutable())) {
+                return false;
+            }
+            Logger.info("Stopping shared " + browser + " driver service " + entry.getKey() + " running a stale driver");
+            try {
+                entry.getValue().stop();
+            } catch (RuntimeException e) {
+                Logger.warn("Error stopping shared driver service: " + e.getMessage());
+            }
+            return true;
+        });
+    }
+
+    private static DriverService startService(String browser, DriverService service) {
+        try {
+            service.start();
+            return service;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start " + browser + " driver service", e);
+        }
+    }
+
+    private static long toMillis(long nanos) {
+        return nanos / 1_000_000L;
     }
 }
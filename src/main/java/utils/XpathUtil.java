@@ -1,12 +1,26 @@
 package utils;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class XpathUtil {
 	
+	private static final int MAX_CACHED_TEMPLATES = 256;
+	private static final Map<String, LocatorTemplate> TEMPLATES = new ConcurrentHashMap<>();
+	
+	/**
+	 * Replace {placeholder} segments in order with the given values (no escaping)
+	 * The xpath is parsed once and reused, instead of running a regex per value
+	 */
 	public static String replaceXpath(String xpath, String... values) {
-	    for (String val : values) {
-	        xpath = xpath.replaceFirst("\\{.*?\\}", val);
+	    LocatorTemplate template = TEMPLATES.get(xpath);
+	    if (template == null) {
+	        if (TEMPLATES.size() >= MAX_CACHED_TEMPLATES) {
+	            TEMPLATES.clear();
+	        }
+	        template = TEMPLATES.computeIfAbsent(xpath, LocatorTemplate::raw);
 	    }
-	    return xpath;
+	    return template.bind(values);
 	}
 
 }
@@ -0,0 +1,18 @@
+// Recorded Usercentrics-style banner: shown shortly after load until accepted for the session
+(function () {
+  if (document.cookie.indexOf('uc_consent=1') >= 0) { return; }
+  setTimeout(function () {
+    var banner = document.createElement('div');
+    banner.id = 'usercentrics-cmp-ui';
+    banner.style.cssText = 'position:fixed;left:0;right:0;bottom:0;padding:16px;background:#fff;border-top:1px solid #ccc;z-index:1000';
+    banner.innerHTML = '<p>We use cookies to improve your experience.</p>' +
+      '<button type="button">Accept All</button> <button type="button">Deny</button>';
+    banner.querySelectorAll('button').forEach(function (button) {
+      button.addEventListener('click', function () {
+        document.cookie = 'uc_consent=1; path=/';
+        banner.remove();
+      });
+    });
+    document.body.appendChild(banner);
+  }, 100);
+})();
@@ -1,16 +1,24 @@
 package tests;
 
-import org.openqa.selenium.WebDriver;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
 import org.testng.ITestResult;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.AfterSuite;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Optional;
 import org.testng.annotations.Parameters;
+import utils.BrowserHealthMonitor;
+import utils.ConfigManager;
+import utils.ConfigOverride;
 import utils.DriverManager;
-import utils.WebDriverFactory;
 import utils.ExtentTestManager;
 import utils.Logger;
+import utils.OperationMetrics;
+import utils.ProfileTemplate;
+import utils.WaitEngine;
 
 /**
  * Base test class with ExtentReports integration
@@ -20,18 +28,13 @@ public class BaseTest {
 	
 	@Parameters({"browser", "headless"})
 	@BeforeMethod(alwaysRun = true)
-	public void setup(@Optional String browser, @Optional String headless) {
-		// Set system properties if parameters are provided
-		if (browser != null) {
-			System.setProperty("browser", browser);
-		}
-		if (headless != null) {
-			System.setProperty("headless", headless);
-		}
+	public void setup(@Optional String browser, @Optional String headless, Method method) {
+		// Resolve this test's configuration once and bind it to the thread - no global System properties
+		ConfigManager.bind(ConfigManager.baseSnapshot().withOverrides(testOverrides(browser, headless, method)));
+		Logger.setTestContext(method.getDeclaringClass().getSimpleName() + "." + method.getName());
 		
-		// Create and set driver for this thread
-		WebDriver driver = WebDriverFactory.createDriver();
-		DriverManager.setDriver(driver);
+		// Borrow a pooled driver (or create one when pooling is disabled) for this thread
+		DriverManager.acquireDriver();
 		
 		Logger.info("Test setup completed - Browser: " + (browser != null ? browser : "default") + 
 			", Headless: " + (headless != null ? headless : "false"));
@@ -51,19 +54,58 @@ public class BaseTest {
 		} catch (Exception e) {
 			Logger.error("Error in test teardown: " + e.getMessage());
 		} finally {
-			// Clean up driver for this thread
-			DriverManager.quitDriver();
+			// Return driver for this thread to the pool
+			DriverManager.releaseDriver();
 			
-			// Clean up ExtentTest thread local
+			// Clean up ExtentTest and configuration thread locals
 			ExtentTestManager.cleanup();
+			ConfigManager.unbind();
+			Logger.clearTestContext();
+		}
+	}
+	
+	/**
+	 * Suite parameters first, then @ConfigOverride entries from the class and the test method
+	 */
+	private static Map<String, String> testOverrides(String browser, String headless, Method method) {
+		Map<String, String> overrides = new HashMap<>();
+		if (browser != null) {
+			overrides.put("browser", browser);
+		}
+		if (headless != null) {
+			overrides.put("headless", headless);
+		}
+		addOverrides(overrides, method.getDeclaringClass().getAnnotation(ConfigOverride.class));
+		addOverrides(overrides, method.getAnnotation(ConfigOverride.class));
+		return overrides;
+	}
+	
+	private static void addOverrides(Map<String, String> overrides, ConfigOverride annotation) {
+		if (annotation == null) {
+			return;
+		}
+		for (String entry : annotation.value()) {
+			int separator = entry.indexOf('=');
+			if (separator <= 0) {
+				throw new IllegalArgumentException("@ConfigOverride entries must be key=value, was: " + entry);
+			}
+			overrides.put(entry.substring(0, separator).trim(), entry.substring(separator + 1).trim());
 		}
 	}
 	
 	@AfterSuite(alwaysRun = true)
 	public void suiteTeardown() {
+		// Quit pooled drivers and log pool and wait metrics
+		DriverManager.shutdownPool();
+		Logger.info("Wait engine - " + WaitEngine.summary());
+		OperationMetrics.publish();
+		ProfileTemplate.publish();
+		BrowserHealthMonitor.publish();
+		
 		// Flush ExtentReports to generate final report
 		utils.ExtentManager.flushExtentReports();
 		Logger.info("Test suite completed - ExtentReports flushed");
+		Logger.flush();
 	}
 
 }
@@ -0,0 +1,80 @@
+package utils;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for ConfigSnapshot duration parsing and overrides
+ */
+public class ConfigSnapshotTest {
+
+    @DataProvider
+    public Object[][] durations() {
+        return new Object[][] {
+            { "30", Duration.ofSeconds(30) },
+            { "500ms", Duration.ofMillis(500) },
+            { "250 ms", Duration.ofMillis(250) },
+            { "30s", Duration.ofSeconds(30) },
+            { "2m", Duration.ofMinutes(2) },
+            { "1h", Duration.ofHours(1) },
+            { " 45S ", Duration.ofSeconds(45) },
+            { "PT1M30S", Duration.ofSeconds(90) },
+            { "pt0.5s", Duration.ofMillis(500) },
+            { "0", Duration.ZERO },
+        };
+    }
+
+    @Test(dataProvider = "durations")
+    public void parsesDuration(String raw, Duration expected) {
+        assertEquals(snapshot("timeout", raw).getDuration("timeout", Duration.ofDays(1)), expected);
+    }
+
+    @Test
+    public void missingDurationUsesDefault() {
+        assertEquals(snapshot("other", "1").getDuration("timeout", Duration.ofSeconds(7)), Duration.ofSeconds(7));
+    }
+
+    @DataProvider
+    public Object[][] invalidDurations() {
+        return new Object[][] { { "10d" }, { "ms" }, { "fast" }, { "" }, { "PT" } };
+    }
+
+    @Test(dataProvider = "invalidDurations")
+    public void invalidDurationNamesKey(String raw) {
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+                () -> snapshot("wait.timeout", raw).getDuration("wait.timeout", Duration.ZERO));
+
+        assertTrue(e.getMessage().contains("'wait.timeout'"), e.getMessage());
+    }
+
+    @Test
+    public void parsedDurationIsMemoized() {
+        ConfigSnapshot snapshot = snapshot("timeout", "PT5S");
+
+        assertSame(snapshot.getDuration("timeout", null), snapshot.getDuration("timeout", null));
+    }
+
+    @Test
+    public void overridesReplaceValuesButIgnoreBlanks() {
+        ConfigSnapshot base = new ConfigSnapshot(Map.of("timeout", "10s", "retries", "2"));
+
+        ConfigSnapshot derived = base.withOverrides(Map.of("timeout", "500ms", "retries", " "));
+
+        assertEquals(derived.getDuration("timeout", null), Duration.ofMillis(500));
+        assertEquals(derived.getInt("retries", 0), 2);
+        assertEquals(base.getDuration("timeout", null), Duration.ofSeconds(10));
+        assertSame(base.withOverrides(Map.of()), base);
+    }
+
+    private static ConfigSnapshot snapshot(String key, String value) {
+        return new ConfigSnapshot(Map.of(key, value));
+    }
+}
@@ -0,0 +1,178 @@
+package utils;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.PageLoadStrategy;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for DriverPool borrowing, eviction and the maxUses limit, using in-memory drivers
+ */
+public class DriverPoolTest {
+
+    private static final DriverProfile CHROME = new DriverProfile("chrome", true, PageLoadStrategy.EAGER, Map.of());
+    private static final DriverProfile EDGE = new DriverProfile("edge", true, PageLoadStrategy.EAGER, Map.of());
+
+    private final List<FakeDriver> created = new ArrayList<>();
+
+    @BeforeMethod
+    public void disableHealthProbes() {
+        // The probes need a real browser; reuse decisions under test do not depend on them
+        ConfigManager.bind(ConfigManager.snapshot().withOverrides(Map.of("health.enabled", "false")));
+        created.clear();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void unbindConfig() {
+        ConfigManager.unbind();
+    }
+
+    @Test
+    public void borrowCreatesSessionWhenNoneIsIdle() {
+        DriverPool pool = pool(2, 5);
+
+        DriverPool.PooledDriver pooled = pool.borrow(CHROME);
+
+        assertEquals(created.size(), 1);
+        assertSame(pooled.getDriver(), created.get(0));
+        assertEquals(pooled.getUses(), 1);
+        assertEquals(pool.getTotal(), 1);
+        assertEquals(pool.getMisses(), 1);
+        assertEquals(pool.getHits(), 0);
+    }
+
+    @Test
+    public void releasedSessionIsResetAndReusedForSameProfile() {
+        DriverPool pool = pool(2, 5);
+        DriverPool.PooledDriver first = pool.borrow(CHROME);
+        FakeDriver driver = (FakeDriver) first.getDriver();
+        DriverPool.recordNavigation(driver, "https://app.example.com/page?x=1");
+        driver.cookies.add(Map.of("domain", ".cdn.example.net"));
+
+        pool.release(first);
+        DriverPool.PooledDriver second = pool.borrow(CHROME);
+
+        assertSame(second.getDriver(), driver);
+        assertEquals(second.getUses(), 2);
+        assertEquals(pool.getHits(), 1);
+        assertEquals(created.size(), 1);
+        assertTrue(clearedOrigins(driver).containsAll(List.of("https://app.example.com",
+                "https://cdn.example.net", "http://cdn.example.net")), clearedOrigins(driver).toString());
+        assertTrue(driver.cdpCommands.contains("Storage.clearCookies"));
+        assertEquals(driver.getCurrentUrl(), "about:blank");
+    }
+
+    @Test
+    public void sessionIsDiscardedOnceMaxUsesIsReached() {
+        DriverPool pool = pool(2, 2);
+        DriverPool.PooledDriver pooled = pool.borrow(CHROME);
+        pool.release(pooled);
+        pooled = pool.borrow(CHROME);
+
+        pool.release(pooled);
+
+        FakeDriver driver = (FakeDriver) pooled.getDriver();
+        assertTrue(driver.quit);
+        assertEquals(pool.getTotal(), 0);
+        assertEquals(pool.getIdleCount(), 0);
+        assertEquals(pool.getEvictions(), 1);
+        assertNotSame(pool.borrow(CHROME).getDriver(), driver);
+    }
+
+    @Test
+    public void sessionThatCannotBeResetIsDiscarded() {
+        DriverPool pool = pool(2, 5);
+        DriverPool.PooledDriver pooled = pool.borrow(CHROME);
+        FakeDriver driver = (FakeDriver) pooled.getDriver();
+        driver.cookies.add(Map.of("domain", "app.example.com"));
+        driver.cookiesSurviveClear = true;
+
+        pool.release(pooled);
+
+        assertTrue(driver.quit);
+        assertEquals(pool.getTotal(), 0);
+        assertEquals(pool.getEvictions(), 1);
+    }
+
+    @Test
+    public void fullPoolRecyclesIdleSessionOfAnotherProfile() {
+        DriverPool pool = pool(1, 5);
+        DriverPool.PooledDriver chrome = pool.borrow(CHROME);
+        pool.release(chrome);
+
+        DriverPool.PooledDriver edge = pool.borrow(EDGE);
+
+        assertTrue(((FakeDriver) chrome.getDriver()).quit);
+        assertNotSame(edge.getDriver(), chrome.getDriver());
+        assertEquals(edge.getProfile(), EDGE);
+        assertEquals(pool.getTotal(), 1);
+        assertEquals(pool.getEvictions(), 1);
+    }
+
+    @Test
+    public void deadIdleSessionIsEvictedOnBorrow() {
+        DriverPool pool = pool(2, 5);
+        DriverPool.PooledDriver pooled = pool.borrow(CHROME);
+        pool.release(pooled);
+        pooled.getDriver().quit();
+
+        DriverPool.PooledDriver replacement = pool.borrow(CHROME);
+
+        assertNotSame(replacement.getDriver(), pooled.getDriver());
+        assertEquals(pool.getEvictions(), 1);
+        assertEquals(pool.getMisses(), 2);
+        assertEquals(pool.getTotal(), 1);
+    }
+
+    @Test
+    public void borrowTimesOutWhenEverySessionIsInUse() {
+        DriverPool pool = new DriverPool(1, 5, Duration.ofMinutes(5), Duration.ofMillis(50), this::create);
+        pool.borrow(CHROME);
+
+        assertThrows(IllegalStateException.class, () -> pool.borrow(CHROME));
+        assertEquals(created.size(), 1);
+    }
+
+    @Test
+    public void failedSessionStartReleasesItsSlot() {
+        DriverPool pool = new DriverPool(1, 5, Duration.ofMinutes(5), Duration.ofMillis(50), profile -> {
+            throw new IllegalStateException("no browser");
+        });
+
+        assertThrows(IllegalStateException.class, () -> pool.borrow(CHROME));
+        assertEquals(pool.getTotal(), 0);
+        assertFalse(pool.metricsSummary().isEmpty());
+    }
+
+    private DriverPool pool(int maxSize, int maxUses) {
+        return new DriverPool(maxSize, maxUses, Duration.ofMinutes(5), Duration.ofSeconds(1), this::create);
+    }
+
+    private FakeDriver create(DriverProfile profile) {
+        FakeDriver driver = new FakeDriver();
+        created.add(driver);
+        return driver;
+    }
+
+    private static List<Object> clearedOrigins(FakeDriver driver) {
+        List<Object> origins = new ArrayList<>();
+        for (int i = 0; i < driver.cdpCommands.size(); i++) {
+            if ("Storage.clearDataForOrigin".equals(driver.cdpCommands.get(i))) {
+                origins.add(driver.cdpParameters.get(i).get("origin"));
+            }
+        }
+        return origins;
+    }
+}
@@ -0,0 +1,173 @@
+package utils;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.testng.IMethodInstance;
+import org.testng.ITestNGMethod;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for DurationScheduler longest-first ordering and makespan prediction
+ */
+public class DurationSchedulerTest {
+
+    private Path historyFile;
+
+    @BeforeMethod
+    public void createHistoryFile() throws IOException {
+        historyFile = Files.createTempFile("test-durations", ".properties");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteHistoryFile() throws IOException {
+        ConfigManager.unbind();
+        Files.deleteIfExists(historyFile);
+    }
+
+    @Test
+    public void ordersLongestFirstAndEstimatesUnknownAtMedian() throws IOException {
+        writeHistory(Map.of("T.fast", 100L, "T.medium", 2_000L, "T.slow", 9_000L));
+        List<IMethodInstance> methods = methods("T.fast", "T.unknown", "T.slow", "T.medium");
+
+        List<IMethodInstance> ordered = new DurationScheduler().schedule(methods, "chrome", 2, "unit");
+
+        // T.unknown is estimated at the median (2000ms) and keeps its place before the equal T.medium
+        assertEquals(names(ordered), List.of("T.slow", "T.unknown", "T.medium", "T.fast"));
+    }
+
+    @Test
+    public void equalEstimatesKeepTestNgOrder() throws IOException {
+        writeHistory(Map.of());
+        List<IMethodInstance> methods = methods("T.c", "T.a", "T.b");
+
+        assertEquals(names(new DurationScheduler().schedule(methods, "chrome", 2, "unit")),
+                List.of("T.c", "T.a", "T.b"));
+    }
+
+    @Test
+    public void historyIsKeptPerBrowser() throws IOException {
+        writeHistory(Map.of("T.a", 100L, "T.b", 9_000L));
+        List<IMethodInstance> methods = methods("T.a", "T.b");
+
+        // No firefox history: both fall back to schedule.defaultMs and keep their order
+        assertEquals(names(new DurationScheduler().schedule(methods, "firefox", 2, "unit")), List.of("T.a", "T.b"));
+    }
+
+    @Test
+    public void disabledSchedulingReturnsMethodsUnchanged() throws IOException {
+        writeHistory(Map.of("T.fast", 100L, "T.slow", 9_000L));
+        bindConfig(Map.of("schedule.enabled", "false"));
+        List<IMethodInstance> methods = methods("T.fast", "T.slow");
+
+        // Returns before the test context is consulted
+        assertSame(new DurationScheduler().intercept(methods, null), methods);
+    }
+
+    @Test
+    public void longestFirstShortensPredictedMakespan() throws IOException {
+        writeHistory(Map.of("T.a", 1L, "T.b", 1L, "T.long", 4L));
+        DurationScheduler scheduler = new DurationScheduler();
+
+        scheduler.schedule(methods("T.a", "T.b", "T.long"), "chrome", 2, "unit");
+
+        // TestNG order: a and b start together, long follows on the first free thread (1 + 4)
+        assertEquals(scheduler.getDefaultOrderMillis(), 5L);
+        // Longest-first: long runs alongside a then b (max(4, 1 + 1))
+        assertEquals(scheduler.getPredictedMillis(), 4L);
+    }
+
+    @Test
+    public void makespanOnOneThreadIsTheSum() throws IOException {
+        writeHistory(Map.of("T.a", 3L, "T.b", 5L, "T.c", 7L));
+        DurationScheduler scheduler = new DurationScheduler();
+
+        scheduler.schedule(methods("T.a", "T.b", "T.c"), "chrome", 1, "unit");
+
+        assertEquals(scheduler.getPredictedMillis(), 15L);
+        assertEquals(scheduler.getDefaultOrderMillis(), 15L);
+    }
+
+    @Test
+    public void makespanWithMoreThreadsThanMethodsIsTheLongest() throws IOException {
+        writeHistory(Map.of("T.a", 3L, "T.b", 8L));
+        DurationScheduler scheduler = new DurationScheduler();
+
+        scheduler.schedule(methods("T.a", "T.b"), "chrome", 4, "unit");
+
+        assertEquals(scheduler.getPredictedMillis(), 8L);
+    }
+
+    @Test
+    public void predictedMakespansAccumulateOverTests() throws IOException {
+        writeHistory(Map.of("T.a", 3L, "T.b", 8L));
+        DurationScheduler scheduler = new DurationScheduler();
+
+        scheduler.schedule(methods("T.a", "T.b"), "chrome", 2, "first");
+        scheduler.schedule(methods("T.a", "T.b"), "chrome", 1, "second");
+
+        assertEquals(scheduler.getPredictedMillis(), 8L + 11L);
+    }
+
+    private void writeHistory(Map<String, Long> durations) throws IOException {
+        Properties properties = new Properties();
+        durations.forEach((name, millis) -> properties.setProperty(name + ".chrome", Long.toString(millis)));
+        try (OutputStream out = Files.newOutputStream(historyFile)) {
+            properties.store(out, null);
+        }
+        bindConfig(Map.of());
+    }
+
+    private void bindConfig(Map<String, String> overrides) {
+        Map<String, String> values = new HashMap<>(overrides);
+        values.put("schedule.historyFile", historyFile.toString());
+        ConfigManager.bind(ConfigManager.baseSnapshot().withOverrides(values));
+    }
+
+    private static List<IMethodInstance> methods(String... qualifiedNames) {
+        List<IMethodInstance> methods = new ArrayList<>();
+        for (String name : qualifiedNames) {
+            ITestNGMethod method = proxy(ITestNGMethod.class, Map.of("getQualifiedName", name));
+            methods.add(proxy(IMethodInstance.class, Map.of("getMethod", method)));
+        }
+        return methods;
+    }
+
+    private static List<String> names(List<IMethodInstance> methods) {
+        List<String> names = new ArrayList<>();
+        methods.forEach(method -> names.add(method.getMethod().getQualifiedName()));
+        return names;
+    }
+
+    /**
+     * Interface stub answering the named no-argument methods; identity equality so it can key a map
+     */
+    private static <T> T proxy(Class<T> type, Map<String, Object> answers) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return type.getSimpleName() + answers;
+                        default:
+                            return answers.get(method.getName());
+                    }
+                }));
+    }
+}
@@ -0,0 +1,125 @@
+package utils;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.chromium.HasCdp;
+
+/**
+ * In-memory Chromium-like WebDriver for unit tests: one window, records navigations and CDP commands
+ */
+class FakeDriver implements WebDriver, HasCdp {
+
+    final List<String> navigations = new ArrayList<>();
+    final List<String> cdpCommands = new ArrayList<>();
+    final List<Map<String, Object>> cdpParameters = new ArrayList<>();
+    /** Cookies Storage.getCookies reports; cleared by Storage.clearCookies unless cookiesSurviveClear */
+    final List<Map<String, Object>> cookies = new ArrayList<>();
+    boolean cookiesSurviveClear;
+    boolean quit;
+    private String currentUrl = "about:blank";
+
+    @Override
+    public Map<String, Object> executeCdpCommand(String commandName, Map<String, Object> parameters) {
+        checkSession();
+        cdpCommands.add(commandName);
+        cdpParameters.add(parameters);
+        if ("Storage.getCookies".equals(commandName)) {
+            return Map.of("cookies", List.copyOf(cookies));
+        }
+        if ("Storage.clearCookies".equals(commandName) && !cookiesSurviveClear) {
+            cookies.clear();
+        }
+        return Map.of();
+    }
+
+    @Override
+    public void get(String url) {
+        checkSession();
+        navigations.add(url);
+        currentUrl = url;
+    }
+
+    @Override
+    public String getCurrentUrl() {
+        checkSession();
+        return currentUrl;
+    }
+
+    @Override
+    public String getTitle() {
+        return "";
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        return List.of();
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String getPageSource() {
+        return "";
+    }
+
+    @Override
+    public void close() {
+        quit = true;
+    }
+
+    @Override
+    public void quit() {
+        quit = true;
+    }
+
+    @Override
+    public Set<String> getWindowHandles() {
+        checkSession();
+        return Set.of("main");
+    }
+
+    @Override
+    public String getWindowHandle() {
+        checkSession();
+        return "main";
+    }
+
+    @Override
+    public TargetLocator switchTo() {
+        return (TargetLocator) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { TargetLocator.class },
+                (proxy, method, args) -> "window".equals(method.getName()) ? this : null);
+    }
+
+    @Override
+    public Navigation navigate() {
+        return (Navigation) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Navigation.class },
+                (proxy, method, args) -> {
+                    if ("to".equals(method.getName())) {
+                        get(String.valueOf(args[0]));
+                    }
+                    return null;
+                });
+    }
+
+    @Override
+    public Options manage() {
+        throw new UnsupportedOperationException();
+    }
+
+    private void checkSession() {
+        if (quit) {
+            throw new NoSuchSessionException("Session was quit");
+        }
+    }
+}
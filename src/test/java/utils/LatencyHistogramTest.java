@@ -0,0 +1,116 @@
+package utils;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for LatencyHistogram bucketing and percentile estimates
+ */
+public class LatencyHistogramTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(histogram.getCount(), 0L);
+        assertEquals(histogram.getMeanMillis(), 0.0, DELTA);
+        assertEquals(histogram.percentileMillis(0.99), 0.0, DELTA);
+    }
+
+    @Test
+    public void bucketUpperBoundsAreInclusive() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        histogram.record(millis(1));
+        histogram.record(millis(1) + 1);
+        histogram.record(millis(30_000) + 1);
+
+        assertEquals(histogram.getBucket(0), 1L);
+        assertEquals(histogram.getBucket(1), 1L);
+        assertEquals(histogram.getBucket(LatencyHistogram.BOUNDS_MILLIS.length), 1L);
+    }
+
+    @Test
+    public void percentilesReportBucketUpperBounds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // 90 fast samples (<= 10ms), 9 at 200ms, 1 at 4s
+        for (int i = 0; i < 90; i++) {
+            histogram.record(millis(8));
+        }
+        for (int i = 0; i < 9; i++) {
+            histogram.record(millis(200));
+        }
+        histogram.record(millis(4_000));
+
+        assertEquals(histogram.percentileMillis(0.50), 10.0, DELTA);
+        assertEquals(histogram.percentileMillis(0.90), 10.0, DELTA);
+        assertEquals(histogram.percentileMillis(0.95), 250.0, DELTA);
+        assertEquals(histogram.percentileMillis(0.99), 250.0, DELTA);
+        assertEquals(histogram.percentileMillis(1.0), 4_000.0, DELTA);
+    }
+
+    @Test
+    public void percentileNeverExceedsObservedMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(millis(300));
+
+        assertEquals(histogram.percentileMillis(0.5), 300.0, DELTA);
+    }
+
+    @Test
+    public void overflowBucketReportsObservedMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(millis(5));
+        histogram.record(millis(45_000));
+
+        assertEquals(histogram.percentileMillis(0.99), 45_000.0, DELTA);
+        assertEquals(histogram.getMaxMillis(), 45_000.0, DELTA);
+    }
+
+    @Test
+    public void meanAndSumUseRecordedNanos() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(millis(10));
+        histogram.record(millis(30));
+
+        assertEquals(histogram.getSumMillis(), 40.0, DELTA);
+        assertEquals(histogram.getMeanMillis(), 20.0, DELTA);
+    }
+
+    @Test
+    public void concurrentRecordsAreAllCounted() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(millis(i % 100));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(histogram.getCount(), 40_000L);
+        long bucketed = 0L;
+        for (int i = 0; i <= LatencyHistogram.BOUNDS_MILLIS.length; i++) {
+            bucketed += histogram.getBucket(i);
+        }
+        assertEquals(bucketed, 40_000L);
+        assertEquals(histogram.getMaxMillis(), 99.0, DELTA);
+    }
+
+    private static long millis(long value) {
+        return TimeUnit.MILLISECONDS.toNanos(value);
+    }
+}
@@ -0,0 +1,101 @@
+package utils;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import org.openqa.selenium.By;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for LocatorTemplate segment parsing and value escaping
+ */
+public class LocatorTemplateTest {
+
+    @Test
+    public void parsesPlaceholdersBetweenLiterals() {
+        LocatorTemplate template = LocatorTemplate.xpath("//div[@id='{id}']/span[{index}]");
+
+        assertEquals(template.getPlaceholderCount(), 2);
+        assertEquals(template.bind("menu", "3"), "//div[@id='menu']/span[3]");
+    }
+
+    @Test
+    public void parsesTemplateWithoutPlaceholders() {
+        LocatorTemplate template = LocatorTemplate.xpath("//h1");
+
+        assertEquals(template.getPlaceholderCount(), 0);
+        assertEquals(template.bind("ignored"), "//h1");
+    }
+
+    @Test
+    public void keepsUnclosedBraceAsLiteral() {
+        LocatorTemplate template = LocatorTemplate.xpath("//a[text()='{name}']{tail");
+
+        assertEquals(template.getPlaceholderCount(), 1);
+        assertEquals(template.bind("x"), "//a[text()='x']{tail");
+    }
+
+    @Test
+    public void leavesUnboundPlaceholdersIntact() {
+        assertEquals(LocatorTemplate.xpath("//{tag}[@id='{id}']").bind("div"), "//div[@id='{id}']");
+    }
+
+    @Test
+    public void placeholdersAtBothEnds() {
+        assertEquals(LocatorTemplate.xpath("{a}/{b}").bind("//ul", "li"), "//ul/li");
+    }
+
+    @Test
+    public void xpathValueWithoutOwnQuoteIsInsertedAsIs() {
+        assertEquals(LocatorTemplate.xpath("//a[text()='{v}']").bind("Say \"hi\""), "//a[text()='Say \"hi\"']");
+        assertEquals(LocatorTemplate.xpath("//a[@title=\"{v}\"]").bind("It's"), "//a[@title=\"It's\"]");
+    }
+
+    @Test
+    public void xpathSingleQuotedValueWithBothQuotesBecomesConcat() {
+        String xpath = LocatorTemplate.xpath("//a[text()='{v}']").bind("It's \"x\"");
+
+        assertEquals(xpath, "//a[text()=concat('It', \"'\", 's \"x\"')]");
+    }
+
+    @Test
+    public void xpathDoubleQuotedValueWithBothQuotesBecomesConcat() {
+        String xpath = LocatorTemplate.xpath("//a[@title=\"{v}\"]").bind("a\"b'c");
+
+        assertEquals(xpath, "//a[@title=concat('a\"b', \"'\", 'c')]");
+    }
+
+    @Test
+    public void xpathConcatOfQuotesOnlyHasTwoArguments() {
+        assertEquals(LocatorTemplate.xpath("//a[text()='{v}']").bind("'"), "//a[text()=concat(\"'\", '')]");
+        assertEquals(LocatorTemplate.xpath("//a[text()='{v}']").bind("''"),
+                "//a[text()=concat(\"'\", \"'\")]");
+    }
+
+    @Test
+    public void cssQuotedValueIsBackslashEscaped() {
+        assertEquals(LocatorTemplate.css("a[title='{v}']").bind("It's \"x\" \\"),
+                "a[title='It\\'s \\\"x\\\" \\\\']");
+    }
+
+    @Test
+    public void cssIdentifierValueIsEscaped() {
+        assertEquals(LocatorTemplate.css("#{id}").bind("1a.b"), "#\\31 a\\.b");
+    }
+
+    @Test
+    public void rawTemplateDoesNotEscape() {
+        assertEquals(XpathUtil.replaceXpath("//a[text()='{v}']", "It's"), "//a[text()='It's']");
+    }
+
+    @Test
+    public void toByIsCachedPerTemplateAndValues() {
+        LocatorTemplate template = LocatorTemplate.xpath("//li[{n}]");
+        String[] values = { "1" };
+        By first = template.toBy(values);
+        values[0] = "2";
+
+        assertSame(template.toBy("1"), first);
+        assertEquals(template.toBy(values), By.xpath("//li[2]"));
+    }
+}
@@ -0,0 +1,118 @@
+package utils;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for LogRingBuffer ordering, capacity and overflow behaviour
+ */
+public class LogRingBufferTest {
+
+    @Test
+    public void capacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(new LogRingBuffer<String>(1).capacity(), 4);
+        assertEquals(new LogRingBuffer<String>(4).capacity(), 4);
+        assertEquals(new LogRingBuffer<String>(5).capacity(), 8);
+        assertEquals(new LogRingBuffer<String>(8192).capacity(), 8192);
+    }
+
+    @Test
+    public void drainsInPublishOrderAcrossWrapAround() {
+        LogRingBuffer<Integer> buffer = new LogRingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(buffer.offer(i));
+            if (i % 3 == 2) {
+                buffer.drain(drained::add, Integer.MAX_VALUE);
+            }
+        }
+        buffer.drain(drained::add, Integer.MAX_VALUE);
+
+        assertEquals(drained, List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void fullBufferRejectsWithoutOverwriting() {
+        LogRingBuffer<String> buffer = new LogRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer("e" + i));
+        }
+
+        assertFalse(buffer.offer("overflow"));
+
+        List<String> drained = new ArrayList<>();
+        assertEquals(buffer.drain(drained::add, Integer.MAX_VALUE), 4);
+        assertEquals(drained, List.of("e0", "e1", "e2", "e3"));
+        assertTrue(buffer.offer("after"));
+    }
+
+    @Test
+    public void drainStopsAtMax() {
+        LogRingBuffer<String> buffer = new LogRingBuffer<>(8);
+        buffer.offer("a");
+        buffer.offer("b");
+        buffer.offer("c");
+        List<String> drained = new ArrayList<>();
+
+        assertEquals(buffer.drain(drained::add, 2), 2);
+        assertFalse(buffer.isEmpty());
+        assertEquals(buffer.drain(drained::add, 2), 1);
+        assertEquals(drained, List.of("a", "b", "c"));
+    }
+
+    @Test
+    public void emptyBufferDrainsNothing() {
+        LogRingBuffer<String> buffer = new LogRingBuffer<>(4);
+
+        assertTrue(buffer.isEmpty());
+        assertEquals(buffer.drain(event -> { }, 10), 0);
+    }
+
+    @Test(timeOut = 10_000)
+    public void keepsEachProducersEventsInOrder() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 20_000;
+        LogRingBuffer<long[]> buffer = new LogRingBuffer<>(64);
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            Thread thread = new Thread(() -> {
+                for (long i = 0; i < perProducer; i++) {
+                    // Park and retry on a full buffer, like the BLOCK overflow policy
+                    while (!buffer.offer(new long[] { producer, i })) {
+                        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+                    }
+                }
+                done.countDown();
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        Map<Long, Long> next = new HashMap<>();
+        int[] received = { 0 };
+        while (done.getCount() > 0 || !buffer.isEmpty()) {
+            buffer.drain(event -> {
+                long expected = next.getOrDefault(event[0], 0L);
+                assertEquals(event[1], expected, "producer " + event[0]);
+                next.put(event[0], expected + 1);
+                received[0]++;
+            }, 256);
+        }
+
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertEquals(received[0], producers * perProducer);
+    }
+}